@@ -29,6 +29,7 @@ public final class Main extends Application {
 
 	private static double PACE = 0.8; // in seconds (usually 2)
 	private static long SLEEP = 1000; // in milliseconds (usually 1000)
+	private static double MAX_THINK = PacedPlayer.NO_MAX_TIME; // in seconds
 
 	public static void main(String[] args) {
 		launch(args);
@@ -203,7 +204,7 @@ public final class Main extends Application {
 		}
 
 		// return new PacedPlayer(new RandomPlayer(), PACE);
-		return new PacedPlayer(new MctsPlayer(pId, seed, it), PACE);
+		return new PacedPlayer(new MctsPlayer(pId, seed, it), PACE, MAX_THINK);
 	}
 
 	/**
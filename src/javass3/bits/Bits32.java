@@ -39,6 +39,33 @@ public class Bits32 {
 		return (bits & mask) >>> start;
 	}
 
+	/**
+	 * Create a mask from start (inc) to start + size (exc), without checking the
+	 * arguments : for the hot paths of the packed components, whose fields are
+	 * given by constants
+	 * 
+	 * @param start (int) : where the mask begins, start + size at most 32
+	 * @param size  (int) : the size of the mask, less than 32
+	 * @return (int) : the mask
+	 */
+	public static int maskUnchecked(int start, int size) {
+		return ((1 << size) - 1) << start;
+	}
+
+	/**
+	 * Extract the start to start + size bit string, without checking the
+	 * arguments : for the hot paths of the packed components, whose fields are
+	 * given by constants
+	 * 
+	 * @param bits  (int) : the bit string
+	 * @param start (int) : where the field begins, start + size at most 32
+	 * @param size  (int) : the size of the field, less than 32
+	 * @return (int) : the field, on the low weight bits
+	 */
+	public static int extractUnchecked(int bits, int start, int size) {
+		return (bits >>> start) & ((1 << size) - 1);
+	}
+
 	/**
 	 * Pack values v1 and v2 in an integer
 	 * 
@@ -39,6 +39,33 @@ public class Bits64 {
 		return (bits & mask) >>> start;
 	}
 
+	/**
+	 * Create a mask from start (inc) to start + size (exc), without checking the
+	 * arguments : for the hot paths of the packed components, whose fields are
+	 * given by constants
+	 * 
+	 * @param start (int) : where the mask begins, start + size at most 64
+	 * @param size  (int) : the size of the mask, less than 64
+	 * @return (long) : the mask
+	 */
+	public static long maskUnchecked(int start, int size) {
+		return ((1L << size) - 1) << start;
+	}
+
+	/**
+	 * Extract the start to start + size bit string, without checking the
+	 * arguments : for the hot paths of the packed components, whose fields are
+	 * given by constants
+	 * 
+	 * @param bits  (long) : the bit string
+	 * @param start (int) : where the field begins, start + size at most 64
+	 * @param size  (int) : the size of the field, less than 64
+	 * @return (long) : the field, on the low weight bits
+	 */
+	public static long extractUnchecked(long bits, int start, int size) {
+		return (bits >>> start) & ((1L << size) - 1);
+	}
+
 	/**
 	 * Pack values v1 and v2 in a long
 	 * 
@@ -76,9 +76,7 @@ public final class HandBean {
 	 */
 	public void setPlayableCards(CardSet newPlayableCards) {
 		playableCards.clear();
-		for (int i = 0; i < newPlayableCards.size(); ++i) {
-			playableCards.add(newPlayableCards.get(i));
-		}
+		newPlayableCards.forEach(playableCards::add);
 	}
 
 	// bonus : need help button functions
@@ -138,8 +138,7 @@ public class JassGame {
 	 */
 	private void shuffleDeal() {
 		// Create a deck with all cards
-		for (int i = 0; i < CardSet.ALL_CARDS.size(); ++i)
-			deck.add(CardSet.ALL_CARDS.get(i));
+		CardSet.ALL_CARDS.forEach(deck::add);
 
 		Collections.shuffle(deck, shuffleRng);
 
@@ -4,6 +4,7 @@ import static javass3.Preconditions.checkArgument;
 import static javass3.Preconditions.checkIndex;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import javass3.jass.components.Card.Color;
 import javass3.jass.packed.PackedCardSet;
@@ -83,6 +84,15 @@ public class CardSet {
 		return Card.ofPacked((PackedCardSet.get(pkCardSet, index)));
 	}
 
+	/**
+	 * Apply the given action to each card of the cardset, in the order of get
+	 * 
+	 * @param action (Consumer<Card>)
+	 */
+	public void forEach(Consumer<Card> action) {
+		PackedCardSet.forEach(pkCardSet, pkCard -> action.accept(Card.ofPacked(pkCard)));
+	}
+
 	/**
 	 * Add the given card in the cardset, do nothing if the card is already in the
 	 * cardset
@@ -5,6 +5,7 @@ import static javass3.Preconditions.checkArgument;
 import javass3.jass.components.Card.Color;
 import javass3.jass.ids.PlayerId;
 import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedLongTrick;
 import javass3.jass.packed.PackedScore;
 import javass3.jass.packed.PackedTrick;
 
@@ -142,8 +143,10 @@ public class TurnState {
 	 */
 	public TurnState withTrickCollected() {
 		checkCondition(PackedTrick.isFull(pkTrick));
-		return new TurnState(PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(pkTrick).team(),
-				PackedTrick.points(pkTrick)), pkUnplayedCards, PackedTrick.nextEmpty(pkTrick));
+		long pkLongTrick = PackedLongTrick.of(pkTrick);
+		return new TurnState(PackedScore.withAdditionalTrick(pkScore,
+				PackedLongTrick.winningPlayer(pkLongTrick).team(), PackedLongTrick.points(pkLongTrick)),
+				pkUnplayedCards, PackedLongTrick.packedTrick(PackedLongTrick.nextEmpty(pkLongTrick)));
 	}
 
 	/**
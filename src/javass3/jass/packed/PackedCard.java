@@ -1,6 +1,6 @@
 package javass3.jass.packed;
 
-import static javass3.bits.Bits32.extract;
+import static javass3.bits.Bits32.extractUnchecked;
 
 import javass3.jass.components.Card.Color;
 import javass3.jass.components.Card.Rank;
@@ -26,8 +26,8 @@ public class PackedCard {
 	 * @return (boolean) : true if pkCard is a valid card
 	 */
 	public static boolean isValid(int pkCard) {
-		int rank = extract(pkCard, RANK_START, RANK_SIZE);
-		int other = extract(pkCard, UNUSED_BITS, Integer.SIZE - UNUSED_BITS);
+		int rank = extractUnchecked(pkCard, RANK_START, RANK_SIZE);
+		int other = extractUnchecked(pkCard, UNUSED_BITS, Integer.SIZE - UNUSED_BITS);
 		return (rank >= 0) && (rank < Rank.COUNT) && (other == 0);
 	}
 
@@ -52,7 +52,7 @@ public class PackedCard {
 	 */
 	public static Color color(int pkCard) {
 		assert isValid(pkCard);
-		int color = extract(pkCard, COLOR_START, COLOR_SIZE);
+		int color = extractUnchecked(pkCard, COLOR_START, COLOR_SIZE);
 		return Color.ALL.get(color);
 	}
 
@@ -64,7 +64,7 @@ public class PackedCard {
 	 */
 	public static Rank rank(int pkCard) {
 		assert isValid(pkCard);
-		int rank = extract(pkCard, RANK_START, RANK_SIZE);
+		int rank = extractUnchecked(pkCard, RANK_START, RANK_SIZE);
 		return Rank.ALL.get(rank);
 	}
 
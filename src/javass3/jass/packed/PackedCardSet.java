@@ -1,10 +1,11 @@
 package javass3.jass.packed;
 
-import static javass3.bits.Bits64.extract;
+import static javass3.bits.Bits64.extractUnchecked;
 import static javass3.jass.packed.PackedCard.isBetter;
 import static javass3.jass.packed.PackedCard.pack;
 
 import java.util.StringJoiner;
+import java.util.function.IntConsumer;
 
 import javass3.jass.components.Card.Color;
 import javass3.jass.components.Card.Rank;
@@ -17,9 +18,13 @@ public class PackedCardSet {
 	private static final int USED_BITS = 9;
 	private static final int UNUSED_BITS = 7;
 	private static final int COLOR_SIZE = USED_BITS + UNUSED_BITS;
+	private static final long COLOR_MASK = (1L << USED_BITS) - 1;
+	private static final int RANK_COUNT_MASK = 0xFFFF;
 
 	private static final long[][] tabTrumpAbove = tableTrumpAbove();
 	private static final long[] tabColor = tableSubsetOfColor();
+	// Rank of the i-th card of each set of ranks of a color, indexed by ranks * 9 + i
+	private static final byte[] tabSelect = tableSelect();
 
 	private PackedCardSet() {
 	}
@@ -33,7 +38,7 @@ public class PackedCardSet {
 	 */
 	public static boolean isValid(long pkCardSet) {
 		for (int c = 0; c < Long.SIZE; c += COLOR_SIZE) {
-			if (extract(pkCardSet, c + USED_BITS, UNUSED_BITS) != 0)
+			if (extractUnchecked(pkCardSet, c + USED_BITS, UNUSED_BITS) != 0)
 				return false;
 		}
 		return true;
@@ -86,7 +91,10 @@ public class PackedCardSet {
 	}
 
 	/**
-	 * Get a packed card of the packed cardset given an index
+	 * Get a packed card of the packed cardset given an index, in constant time
+	 * and without branches : the color of the card is given by the numbers of
+	 * cards of the colors before it, and the card is then read in the table of
+	 * the cards of its color
 	 * 
 	 * @param pkCardSet (long)
 	 * @param index     (int)
@@ -95,11 +103,58 @@ public class PackedCardSet {
 	public static int get(long pkCardSet, int index) {
 		assert isValid(pkCardSet);
 		assert (index >= 0) && (index < size(pkCardSet));
-		for (int i = 0; i < index; i++)
-			pkCardSet = ~Long.lowestOneBit(pkCardSet) & pkCardSet;
+		int count0 = Long.bitCount(pkCardSet & COLOR_MASK);
+		int count1 = count0 + Long.bitCount(pkCardSet & COLOR_MASK << COLOR_SIZE);
+		int count2 = count1 + Long.bitCount(pkCardSet & COLOR_MASK << 2 * COLOR_SIZE);
+		int color = (count0 - index - 1 >>> 31) + (count1 - index - 1 >>> 31) + (count2 - index - 1 >>> 31);
+		// Numbers of cards before each color, on 16 bits each
+		long before = (long) count0 << COLOR_SIZE | (long) count1 << 2 * COLOR_SIZE | (long) count2 << 3 * COLOR_SIZE;
+		int shift = color * COLOR_SIZE;
+		int ranks = (int) ((pkCardSet >>> shift) & COLOR_MASK);
+		return shift + tabSelect[ranks * USED_BITS + index - (int) ((before >>> shift) & RANK_COUNT_MASK)];
+	}
+
+	/**
+	 * Get the card of the packed cardset with the lowest packed value. With
+	 * withoutFirst, it iterates over the cards without any index nor allocation
+	 * 
+	 * <pre>
+	 * for (long s = pkCardSet; !isEmpty(s); s = withoutFirst(s))
+	 * 	... first(s) ...
+	 * </pre>
+	 * 
+	 * @param pkCardSet (long) : not empty
+	 * @return (int) : the packed card
+	 */
+	public static int first(long pkCardSet) {
+		assert isValid(pkCardSet) && !isEmpty(pkCardSet);
 		return Long.numberOfTrailingZeros(pkCardSet);
 	}
 
+	/**
+	 * Remove the card of the packed cardset with the lowest packed value
+	 * 
+	 * @param pkCardSet (long)
+	 * @return (long) : new packed cardset without its first card
+	 */
+	public static long withoutFirst(long pkCardSet) {
+		assert isValid(pkCardSet);
+		return pkCardSet & (pkCardSet - 1);
+	}
+
+	/**
+	 * Apply the given action to each card of the packed cardset, in increasing
+	 * order of packed value
+	 * 
+	 * @param pkCardSet (long)
+	 * @param action    (IntConsumer) : action applied to each packed card
+	 */
+	public static void forEach(long pkCardSet, IntConsumer action) {
+		assert isValid(pkCardSet);
+		for (long s = pkCardSet; s != EMPTY; s &= s - 1)
+			action.accept(Long.numberOfTrailingZeros(s));
+	}
+
 	/**
 	 * Add the given pkCard in the given pkCardSet
 	 * 
@@ -201,8 +256,7 @@ public class PackedCardSet {
 	public static String toString(long pkCardSet) {
 		assert isValid(pkCardSet);
 		StringJoiner j = new StringJoiner(",", "{", "}");
-		for (int i = 0; i < size(pkCardSet); i++)
-			j.add(PackedCard.toString(get(pkCardSet, i)));
+		forEach(pkCardSet, pkCard -> j.add(PackedCard.toString(pkCard)));
 		return j.toString();
 	}
 
@@ -240,6 +294,23 @@ public class PackedCardSet {
 		return tab;
 	}
 
+	/**
+	 * Create the array for get function
+	 * 
+	 * @return (byte[]) : select array
+	 */
+	private static byte[] tableSelect() {
+		byte[] tab = new byte[(int) (COLOR_MASK + 1) * USED_BITS];
+		for (int ranks = 0; ranks <= COLOR_MASK; ++ranks) {
+			int i = 0;
+			for (int rank = 0; rank < USED_BITS; ++rank) {
+				if ((ranks & 1 << rank) != 0)
+					tab[ranks * USED_BITS + i++] = (byte) rank;
+			}
+		}
+		return tab;
+	}
+
 	/**
 	 * Create the array for subsetOfColor function
 	 * 
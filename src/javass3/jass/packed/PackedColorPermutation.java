@@ -0,0 +1,245 @@
+package javass3.jass.packed;
+
+import javass3.jass.components.Card.Color;
+
+/**
+ * Permutation of the colors, packed in an int with the image of each color on
+ * 2 bits. The colors which are neither the trump nor the base color of the
+ * trick are interchangeable, so that a state is searched once in its canonical
+ * form, where these colors are sorted by the cards left in each of them
+ */
+public class PackedColorPermutation {
+
+	public static final int IDENTITY = 0b11_10_01_00;
+
+	private static final int IMAGE_SIZE = 2;
+	private static final int IMAGE_MASK = 0b11;
+	private static final int RANK_SIZE = 4;
+	private static final int RANK_MASK = 0b1111;
+	private static final int COLOR_SIZE = 16;
+	private static final long COLOR_MASK = 0x1FFL;
+	private static final int CARD_SIZE = 6;
+	private static final int SIGNATURE_SIZE = 9;
+
+	private PackedColorPermutation() {
+	}
+
+	/**
+	 * Get the permutation giving the canonical form of a state with the given
+	 * trick and cardsets
+	 * 
+	 * @param pkTrick    (int)
+	 * @param pkCardSet1 (long) : for instance the unplayed cards
+	 * @param pkCardSet2 (long) : for instance the hand of a player
+	 * @return (int) : packed permutation, IDENTITY for a terminal trick
+	 */
+	public static int canonical(int pkTrick, long pkCardSet1, long pkCardSet2) {
+		if (pkTrick == PackedTrick.INVALID)
+			return IDENTITY;
+		return sorted(pkTrick, signature(pkTrick, pkCardSet1, pkCardSet2, 0),
+				signature(pkTrick, pkCardSet1, pkCardSet2, 1), signature(pkTrick, pkCardSet1, pkCardSet2, 2),
+				signature(pkTrick, pkCardSet1, pkCardSet2, 3));
+	}
+
+	/**
+	 * Get the permutation giving the canonical form of a state with the given
+	 * trick and hands
+	 * 
+	 * @param pkTrick (int)
+	 * @param hands   (long[]) : packed hand of each player, indexed by ordinal
+	 * @return (int) : packed permutation, IDENTITY for a terminal trick
+	 */
+	public static int canonical(int pkTrick, long[] hands) {
+		if (pkTrick == PackedTrick.INVALID)
+			return IDENTITY;
+		return sorted(pkTrick, signature(pkTrick, hands, 0), signature(pkTrick, hands, 1),
+				signature(pkTrick, hands, 2), signature(pkTrick, hands, 3));
+	}
+
+	/**
+	 * Get the image of a color by the permutation
+	 * 
+	 * @param permutation (int)
+	 * @param color       (int) : ordinal of the color
+	 * @return (int) : ordinal of the image
+	 */
+	public static int image(int permutation, int color) {
+		return (permutation >>> color * IMAGE_SIZE) & IMAGE_MASK;
+	}
+
+	/**
+	 * Get the inverse of the permutation, which maps back the canonical cards
+	 * 
+	 * @param permutation (int)
+	 * @return (int) : inverse permutation
+	 */
+	public static int inverse(int permutation) {
+		int inverse = 0;
+		for (int c = 0; c < Color.COUNT; ++c)
+			inverse |= c << image(permutation, c) * IMAGE_SIZE;
+		return inverse;
+	}
+
+	/**
+	 * Apply the permutation to a packed card
+	 * 
+	 * @param permutation (int)
+	 * @param pkCard      (int)
+	 * @return (int) : packed card of the image color and the same rank
+	 */
+	public static int applyToCard(int permutation, int pkCard) {
+		return image(permutation, pkCard >>> RANK_SIZE) << RANK_SIZE | (pkCard & RANK_MASK);
+	}
+
+	/**
+	 * Apply the permutation to a packed cardset
+	 * 
+	 * @param permutation (int)
+	 * @param pkCardSet   (long)
+	 * @return (long) : packed cardset whose cards of each color are moved to its
+	 *         image
+	 */
+	public static long applyToCardSet(int permutation, long pkCardSet) {
+		long image = PackedCardSet.EMPTY;
+		for (int c = 0; c < Color.COUNT; ++c)
+			image |= bitsOfColor(pkCardSet, c) << image(permutation, c) * COLOR_SIZE;
+		return image;
+	}
+
+	/**
+	 * Apply the permutation to the cards of a packed trick, its trump being one of
+	 * the fixed colors
+	 * 
+	 * @param permutation (int)
+	 * @param pkTrick     (int)
+	 * @return (int) : packed trick with the image cards, INVALID for INVALID
+	 */
+	public static int applyToTrick(int permutation, int pkTrick) {
+		if (pkTrick == PackedTrick.INVALID)
+			return pkTrick;
+		for (int i = 0; i < PackedTrick.size(pkTrick); ++i) {
+			int shift = i * CARD_SIZE;
+			int pkCard = (pkTrick >>> shift) & PackedCard.INVALID;
+			pkTrick = pkTrick & ~(PackedCard.INVALID << shift) | applyToCard(permutation, pkCard) << shift;
+		}
+		return pkTrick;
+	}
+
+	/**
+	 * Build the permutation which sorts the interchangeable colors by their
+	 * signature, the trump and the base color staying in place
+	 * 
+	 * @param pkTrick (int)
+	 * @param s0      (long) : signature of the first color
+	 * @param s1      (long) : signature of the second color
+	 * @param s2      (long) : signature of the third color
+	 * @param s3      (long) : signature of the fourth color
+	 * @return (int) : packed permutation
+	 */
+	private static int sorted(int pkTrick, long s0, long s1, long s2, long s3) {
+		int trump = PackedTrick.trump(pkTrick).ordinal();
+		int base = PackedTrick.isEmpty(pkTrick) ? trump : PackedTrick.baseColor(pkTrick).ordinal();
+
+		// Free colors in increasing order, packed on 2 bits each
+		int slots = 0;
+		int n = 0;
+		for (int c = 0; c < Color.COUNT; ++c) {
+			if (c != trump && c != base)
+				slots |= c << n++ * IMAGE_SIZE;
+		}
+
+		// Insertion sort of the free colors by signature
+		int order = slots;
+		for (int i = 1; i < n; ++i) {
+			for (int j = i; j > 0; --j) {
+				int a = image(order, j - 1);
+				int b = image(order, j);
+				if (signature(a, s0, s1, s2, s3) <= signature(b, s0, s1, s2, s3))
+					break;
+				order = order & ~(IMAGE_MASK << (j - 1) * IMAGE_SIZE | IMAGE_MASK << j * IMAGE_SIZE)
+						| b << (j - 1) * IMAGE_SIZE | a << j * IMAGE_SIZE;
+			}
+		}
+
+		int permutation = IDENTITY;
+		for (int k = 0; k < n; ++k) {
+			int c = image(order, k);
+			permutation = permutation & ~(IMAGE_MASK << c * IMAGE_SIZE) | image(slots, k) << c * IMAGE_SIZE;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Compute the signature of a color in a state given by two cardsets : its
+	 * cards in each cardset and in the trick
+	 * 
+	 * @param pkTrick    (int)
+	 * @param pkCardSet1 (long)
+	 * @param pkCardSet2 (long)
+	 * @param color      (int)
+	 * @return (long) : signature of the color
+	 */
+	private static long signature(int pkTrick, long pkCardSet1, long pkCardSet2, int color) {
+		return bitsOfColor(pkCardSet1, color) | bitsOfColor(pkCardSet2, color) << SIGNATURE_SIZE
+				| trickBitsOfColor(pkTrick, color) << 2 * SIGNATURE_SIZE;
+	}
+
+	/**
+	 * Compute the signature of a color in a state given by the hands : its cards
+	 * in each hand and in the trick
+	 * 
+	 * @param pkTrick (int)
+	 * @param hands   (long[])
+	 * @param color   (int)
+	 * @return (long) : signature of the color
+	 */
+	private static long signature(int pkTrick, long[] hands, int color) {
+		long signature = trickBitsOfColor(pkTrick, color) << hands.length * SIGNATURE_SIZE;
+		for (int p = 0; p < hands.length; ++p)
+			signature |= bitsOfColor(hands[p], color) << p * SIGNATURE_SIZE;
+		return signature;
+	}
+
+	/**
+	 * Select the signature of a color
+	 * 
+	 * @param color (int)
+	 * @param s0    (long)
+	 * @param s1    (long)
+	 * @param s2    (long)
+	 * @param s3    (long)
+	 * @return (long) : signature of the color
+	 */
+	private static long signature(int color, long s0, long s1, long s2, long s3) {
+		return color == 0 ? s0 : color == 1 ? s1 : color == 2 ? s2 : s3;
+	}
+
+	/**
+	 * Get the 9 bits of the cards of a color in a packed cardset
+	 * 
+	 * @param pkCardSet (long)
+	 * @param color     (int)
+	 * @return (long) : bits of the ranks of the color
+	 */
+	private static long bitsOfColor(long pkCardSet, int color) {
+		return (pkCardSet >>> color * COLOR_SIZE) & COLOR_MASK;
+	}
+
+	/**
+	 * Get the bits of the ranks of the cards of a color in a packed trick, 9 bits
+	 * per position in the trick, as the positions of the cards matter
+	 * 
+	 * @param pkTrick (int)
+	 * @param color   (int)
+	 * @return (long) : bits of the ranks of the color
+	 */
+	private static long trickBitsOfColor(int pkTrick, int color) {
+		long bits = 0L;
+		for (int i = 0; i < PackedTrick.size(pkTrick); ++i) {
+			int pkCard = (pkTrick >>> i * CARD_SIZE) & PackedCard.INVALID;
+			if (pkCard >>> RANK_SIZE == color)
+				bits |= 1L << (i * SIGNATURE_SIZE + (pkCard & RANK_MASK));
+		}
+		return bits;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,284 @@
+package javass3.jass.packed;
+
+import static javass3.jass.Jass.LAST_TRICK_ADDITIONAL_POINTS;
+
+import javass3.jass.Jass;
+import javass3.jass.components.Card.Color;
+import javass3.jass.components.Card.Rank;
+import javass3.jass.ids.PlayerId;
+
+/**
+ * Packed trick in a long, carrying the summary of its cards : the low 32 bits
+ * hold the trick in the format of PackedTrick, and the high bits its size, the
+ * index of its winning card and the points of its cards. The summary is updated
+ * in constant time by withAddedCard, so that the size, the winner and the points
+ * of a trick are read without looping over its cards
+ */
+public class PackedLongTrick {
+
+	public static final long INVALID = -1L;
+
+	private static final int SIZE_CARD = 6;
+	private static final int CARD_MASK = PackedCard.INVALID;
+	private static final int NO_CARDS = 0xFF_FFFF;
+	private static final int START_INDEX = 24;
+	private static final int START_PLAYER = 28;
+	private static final int START_TRUMP = 30;
+	private static final int INDEX_MASK = 0b1111;
+	private static final int PLAYER_MASK = 0b11;
+
+	private static final int START_SIZE = 32;
+	private static final int START_WINNER = 35;
+	private static final int START_POINTS = 37;
+	private static final int SIZE_MASK = 0b111;
+	private static final int WINNER_MASK = 0b11;
+	private static final int POINTS_MASK = 0xFF;
+
+	private static final int MAX_CARDS = 4;
+
+	// For each trump and packed card, the cards beating it when it wins the trick
+	private static final long[][] BEATERS = tableBeaters();
+	// For each trump and packed card, its points
+	private static final int[][] POINTS = tablePoints();
+
+	private PackedLongTrick() {
+	}
+
+	/**
+	 * Check if the given packed trick is valid, ie its low bits are a valid
+	 * PackedTrick and its summary matches its cards
+	 * 
+	 * @param pkLongTrick (long)
+	 * @return (boolean) : true iff pkLongTrick is valid
+	 */
+	public static boolean isValid(long pkLongTrick) {
+		int pkTrick = packedTrick(pkLongTrick);
+		return PackedTrick.isValid(pkTrick) && of(pkTrick) == pkLongTrick;
+	}
+
+	/**
+	 * Get the packed trick with its summary, from the format of PackedTrick
+	 * 
+	 * @param pkTrick (int) : packed trick, possibly INVALID
+	 * @return (long) : packed trick with its summary, INVALID for INVALID
+	 */
+	public static long of(int pkTrick) {
+		if (pkTrick == PackedTrick.INVALID)
+			return INVALID;
+		assert PackedTrick.isValid(pkTrick);
+		long pkLongTrick = Integer.toUnsignedLong(pkTrick | NO_CARDS);
+		for (int i = 0; i < MAX_CARDS; ++i) {
+			int pkCard = (pkTrick >>> i * SIZE_CARD) & CARD_MASK;
+			if (pkCard == PackedCard.INVALID)
+				break;
+			pkLongTrick = withAddedCard(pkLongTrick, pkCard);
+		}
+		return pkLongTrick;
+	}
+
+	/**
+	 * Get the packed trick in the format of PackedTrick, for instance for the
+	 * network protocol or the Trick component
+	 * 
+	 * @param pkLongTrick (long)
+	 * @return (int) : packed trick, INVALID for INVALID
+	 */
+	public static int packedTrick(long pkLongTrick) {
+		return (int) pkLongTrick;
+	}
+
+	/**
+	 * Get the first packed trick of a turn
+	 * 
+	 * @param trump       (Color)
+	 * @param firstPlayer (PlayerId)
+	 * @return (long) : first empty packed trick
+	 */
+	public static long firstEmpty(Color trump, PlayerId firstPlayer) {
+		return Integer.toUnsignedLong(PackedTrick.firstEmpty(trump, firstPlayer));
+	}
+
+	/**
+	 * Get the next packed trick, whose first player is the winner of the given
+	 * one
+	 * 
+	 * @param pkLongTrick (long) : full packed trick
+	 * @return (long) : next empty packed trick, INVALID after the last trick
+	 */
+	public static long nextEmpty(long pkLongTrick) {
+		assert isValid(pkLongTrick) && isFull(pkLongTrick);
+		int pkTrick = packedTrick(pkLongTrick);
+		int index = pkTrick >>> START_INDEX & INDEX_MASK;
+		if (index == Jass.TRICKS_PER_TURN - 1)
+			return INVALID;
+		int winner = (pkTrick >>> START_PLAYER) + winningIndex(pkLongTrick) & PLAYER_MASK;
+		return Integer.toUnsignedLong(pkTrick >>> START_TRUMP << START_TRUMP | winner << START_PLAYER
+				| index + 1 << START_INDEX | NO_CARDS);
+	}
+
+	/**
+	 * Get the number of cards in the given packed trick
+	 * 
+	 * @param pkLongTrick (long)
+	 * @return (int) : size of the trick
+	 */
+	public static int size(long pkLongTrick) {
+		return (int) (pkLongTrick >>> START_SIZE) & SIZE_MASK;
+	}
+
+	/**
+	 * Check if the given packed trick is full, ie it contains 4 cards
+	 * 
+	 * @param pkLongTrick (long)
+	 * @return (boolean) : true iff the packed trick is full
+	 */
+	public static boolean isFull(long pkLongTrick) {
+		return size(pkLongTrick) == MAX_CARDS;
+	}
+
+	/**
+	 * Get the player who plays the next card of the given packed trick
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not full
+	 * @return (PlayerId) : next player
+	 */
+	public static PlayerId nextPlayer(long pkLongTrick) {
+		assert !isFull(pkLongTrick);
+		return PlayerId.ALL.get((packedTrick(pkLongTrick) >>> START_PLAYER) + size(pkLongTrick) & PLAYER_MASK);
+	}
+
+	/**
+	 * Get the index of the winning card of the given packed trick
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not empty
+	 * @return (int) : index of the winning card
+	 */
+	public static int winningIndex(long pkLongTrick) {
+		return (int) (pkLongTrick >>> START_WINNER) & WINNER_MASK;
+	}
+
+	/**
+	 * Get the winning card of the given packed trick
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not empty
+	 * @return (int) : packed winning card
+	 */
+	public static int winningCard(long pkLongTrick) {
+		assert size(pkLongTrick) > 0;
+		return (packedTrick(pkLongTrick) >>> winningIndex(pkLongTrick) * SIZE_CARD) & CARD_MASK;
+	}
+
+	/**
+	 * Get the cards that would win the given packed trick if they were played
+	 * next, ie the cards better than its winning card
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not empty
+	 * @return (long) : packed cardset of the cards beating the trick
+	 */
+	public static long beaters(long pkLongTrick) {
+		assert size(pkLongTrick) > 0;
+		return BEATERS[packedTrick(pkLongTrick) >>> START_TRUMP][winningCard(pkLongTrick)];
+	}
+
+	/**
+	 * Check if the partner of the next player is winning the given packed trick,
+	 * ie if he played the winning card two cards before
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not full
+	 * @return (boolean) : true iff the partner of the next player is winning
+	 */
+	public static boolean isPartnerWinning(long pkLongTrick) {
+		int size = size(pkLongTrick);
+		return size >= 2 && winningIndex(pkLongTrick) == size - 2;
+	}
+
+	/**
+	 * Get the winning player of the given packed trick
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not empty
+	 * @return (PlayerId) : winning player
+	 */
+	public static PlayerId winningPlayer(long pkLongTrick) {
+		assert size(pkLongTrick) > 0;
+		int pkTrick = packedTrick(pkLongTrick);
+		return PlayerId.ALL.get((pkTrick >>> START_PLAYER) + winningIndex(pkLongTrick) & PLAYER_MASK);
+	}
+
+	/**
+	 * Get the value of the given packed trick, with the additional points of the
+	 * last trick
+	 * 
+	 * @param pkLongTrick (long)
+	 * @return (int) : points of the packed trick
+	 */
+	public static int points(long pkLongTrick) {
+		int points = (int) (pkLongTrick >>> START_POINTS) & POINTS_MASK;
+		int index = packedTrick(pkLongTrick) >>> START_INDEX & INDEX_MASK;
+		return index == Jass.TRICKS_PER_TURN - 1 ? points + LAST_TRICK_ADDITIONAL_POINTS : points;
+	}
+
+	/**
+	 * Add the given packed card to the packed trick, and update its summary
+	 * 
+	 * @param pkLongTrick (long) : packed trick, not full
+	 * @param pkCard      (int)
+	 * @return (long) : new packed trick with an added card
+	 */
+	public static long withAddedCard(long pkLongTrick, int pkCard) {
+		assert PackedCard.isValid(pkCard) && !isFull(pkLongTrick);
+		int pkTrick = packedTrick(pkLongTrick);
+		int trump = pkTrick >>> START_TRUMP;
+		int size = size(pkLongTrick);
+		int winner = winningIndex(pkLongTrick);
+		int winningCard = (pkTrick >>> winner * SIZE_CARD) & CARD_MASK;
+		if (size > 0 && PackedCardSet.contains(BEATERS[trump][winningCard], pkCard))
+			winner = size;
+		int points = ((int) (pkLongTrick >>> START_POINTS) & POINTS_MASK) + POINTS[trump][pkCard];
+
+		int shift = size * SIZE_CARD;
+		pkTrick = pkTrick & ~(CARD_MASK << shift) | pkCard << shift;
+		return Integer.toUnsignedLong(pkTrick) | (long) (size + 1) << START_SIZE | (long) winner << START_WINNER
+				| (long) points << START_POINTS;
+	}
+
+	/**
+	 * Create the masks of the cards beating each card when it wins a trick, ie
+	 * the cards better than it (PackedCard.isBetter)
+	 * 
+	 * @return (long[][]) : beaters, indexed by trump and packed card
+	 */
+	private static long[][] tableBeaters() {
+		long[][] tab = new long[Color.COUNT][PackedCard.INVALID + 1];
+		for (Color trump : Color.ALL) {
+			for (Color color : Color.ALL) {
+				for (Rank rank : Rank.ALL) {
+					int pkCard = PackedCard.pack(color, rank);
+					for (Color c : Color.ALL) {
+						for (Rank r : Rank.ALL) {
+							if (PackedCard.isBetter(trump, PackedCard.pack(c, r), pkCard))
+								tab[trump.ordinal()][pkCard] |= PackedCardSet.singleton(PackedCard.pack(c, r));
+						}
+					}
+				}
+			}
+		}
+		return tab;
+	}
+
+	/**
+	 * Create the points of each card, for each trump
+	 * 
+	 * @return (int[][]) : points, indexed by trump and packed card
+	 */
+	private static int[][] tablePoints() {
+		int[][] tab = new int[Color.COUNT][PackedCard.INVALID + 1];
+		for (Color trump : Color.ALL) {
+			for (Color color : Color.ALL) {
+				for (Rank rank : Rank.ALL)
+					tab[trump.ordinal()][PackedCard.pack(color, rank)] = PackedCard.points(trump,
+							PackedCard.pack(color, rank));
+			}
+		}
+		return tab;
+	}
+}
\ No newline at end of file
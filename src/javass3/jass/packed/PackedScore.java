@@ -1,7 +1,7 @@
 package javass3.jass.packed;
 
-import static javass3.bits.Bits32.extract;
-import static javass3.bits.Bits64.extract;
+import static javass3.bits.Bits32.extractUnchecked;
+import static javass3.bits.Bits64.extractUnchecked;
 
 import javass3.bits.Bits32;
 import javass3.bits.Bits64;
@@ -25,6 +25,10 @@ public class PackedScore {
 	private static final int START_UNUSED_BITS = START_GAME + SIZE_GAME;
 	private static final int START_TEAM_2 = START_UNUSED_BITS + SIZE_UNUSED_BITS;
 
+	// Tricks and turn points of each team
+	private static final long MASK_TURN_1 = Bits64.maskUnchecked(START_TRICKS, SIZE_TRICKS + SIZE_TURNS);
+	private static final long MASK_TURN_2 = MASK_TURN_1 << START_TEAM_2;
+
 	public static final long INITIAL = 0l;
 
 	private PackedScore() {
@@ -49,10 +53,10 @@ public class PackedScore {
 	 * @return (boolean) : true iff half score is valid
 	 */
 	private static boolean isHalfValid(int pkScoreTeam) {
-		int tricks = extract(pkScoreTeam, START_TRICKS, SIZE_TRICKS);
-		int turn = extract(pkScoreTeam, START_TURNS, SIZE_TURNS);
-		int game = extract(pkScoreTeam, START_GAME, SIZE_GAME);
-		int zero = extract(pkScoreTeam, START_UNUSED_BITS, SIZE_UNUSED_BITS);
+		int tricks = extractUnchecked(pkScoreTeam, START_TRICKS, SIZE_TRICKS);
+		int turn = extractUnchecked(pkScoreTeam, START_TURNS, SIZE_TURNS);
+		int game = extractUnchecked(pkScoreTeam, START_GAME, SIZE_GAME);
+		int zero = extractUnchecked(pkScoreTeam, START_UNUSED_BITS, SIZE_UNUSED_BITS);
 		return (tricks >= MIN_POINTS) && (tricks <= Jass.TRICKS_PER_TURN) && (turn >= MIN_POINTS)
 				&& (turn <= MAX_POINTS_PER_TURN) && (game <= MAX_POINTS_PER_GAME) && (zero == MIN_POINTS);
 	}
@@ -86,7 +90,7 @@ public class PackedScore {
 	public static int turnTricks(long pkScore, TeamId t) {
 		assert isValid(pkScore);
 		int start = t.equals(TeamId.TEAM_1) ? START_TRICKS : START_TRICKS + START_TEAM_2;
-		return (int) extract(pkScore, start, SIZE_TRICKS);
+		return (int) extractUnchecked(pkScore, start, SIZE_TRICKS);
 	}
 
 	/**
@@ -99,7 +103,7 @@ public class PackedScore {
 	public static int turnPoints(long pkScore, TeamId t) {
 		assert isValid(pkScore);
 		int start = t.equals(TeamId.TEAM_1) ? START_TURNS : START_TURNS + START_TEAM_2;
-		return (int) extract(pkScore, start, SIZE_TURNS);
+		return (int) extractUnchecked(pkScore, start, SIZE_TURNS);
 	}
 
 	/**
@@ -112,7 +116,7 @@ public class PackedScore {
 	public static int gamePoints(long pkScore, TeamId t) {
 		assert isValid(pkScore);
 		int start = t.equals(TeamId.TEAM_1) ? START_GAME : START_GAME + START_TEAM_2;
-		return (int) extract(pkScore, start, SIZE_GAME);
+		return (int) extractUnchecked(pkScore, start, SIZE_GAME);
 	}
 
 	/**
@@ -143,9 +147,8 @@ public class PackedScore {
 		if (tricks == Jass.TRICKS_PER_TURN)
 			turn += Jass.MATCH_ADDITIONAL_POINTS;
 
-		long t1 = ~Bits64.mask(START_TRICKS, SIZE_TRICKS + SIZE_TURNS) & pkScore | tricks | (turn << START_TURNS);
-		long t2 = ~Bits64.mask(START_TRICKS + START_TEAM_2, SIZE_TRICKS + SIZE_TURNS) & pkScore | tricks << START_TEAM_2
-				| (turn << START_TURNS + START_TEAM_2);
+		long t1 = ~MASK_TURN_1 & pkScore | tricks | (turn << START_TURNS);
+		long t2 = ~MASK_TURN_2 & pkScore | tricks << START_TEAM_2 | (turn << START_TURNS + START_TEAM_2);
 		return winningTeam.equals(TeamId.TEAM_1) ? t1 : t2;
 	}
 
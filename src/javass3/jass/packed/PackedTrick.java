@@ -1,19 +1,13 @@
 package javass3.jass.packed;
 
-import static javass3.bits.Bits32.extract;
+import static javass3.bits.Bits32.extractUnchecked;
 import static javass3.jass.Jass.LAST_TRICK_ADDITIONAL_POINTS;
 import static javass3.jass.packed.PackedCardSet.EMPTY;
-import static javass3.jass.packed.PackedCardSet.add;
-import static javass3.jass.packed.PackedCardSet.complement;
-import static javass3.jass.packed.PackedCardSet.difference;
-import static javass3.jass.packed.PackedCardSet.get;
-import static javass3.jass.packed.PackedCardSet.intersection;
-import static javass3.jass.packed.PackedCardSet.remove;
 import static javass3.jass.packed.PackedCardSet.singleton;
 import static javass3.jass.packed.PackedCardSet.subsetOfColor;
 import static javass3.jass.packed.PackedCardSet.trumpAbove;
-import static javass3.jass.packed.PackedCardSet.union;
 
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import javass3.bits.Bits32;
@@ -38,6 +32,16 @@ public class PackedTrick {
 
 	private static final int MAX_CARDS = 4;
 
+	private static final int SIZE_RANK = 4;
+	private static final int CARD_MASK = PackedCard.INVALID;
+	// Four invalid cards
+	private static final int NO_CARDS = Bits32.maskUnchecked(0, MAX_CARDS * SIZE_CARD);
+
+	// Masks used to compute the playable cards
+	private static final long[] COLOR_MASKS = tableColorMasks();
+	private static final long[] LONE_JACKS = tableLoneJacks();
+	private static final long[][] TRUMPS_ABOVE = tableTrumpsAbove();
+
 	private PackedTrick() {
 	}
 
@@ -49,7 +53,7 @@ public class PackedTrick {
 	 * @return (boolean) : true iff pkTrick is valid
 	 */
 	public static boolean isValid(int pkTrick) {
-		int index = extract(pkTrick, START_INDEX, SIZE_INDEX);
+		int index = extractUnchecked(pkTrick, START_INDEX, SIZE_INDEX);
 		return (index >= 0) && (index < Jass.TRICKS_PER_TURN) && checkValidityOrder(pkTrick);
 	}
 
@@ -81,9 +85,7 @@ public class PackedTrick {
 	 * @return (int) : first empty packed trick
 	 */
 	public static int firstEmpty(Color trump, PlayerId firstPlayer) {
-		return Bits32.pack(PackedCard.INVALID, SIZE_CARD, PackedCard.INVALID, SIZE_CARD, PackedCard.INVALID, SIZE_CARD,
-				PackedCard.INVALID, SIZE_CARD, 0, SIZE_INDEX, firstPlayer.ordinal(), SIZE_PLAYER, trump.ordinal(),
-				SIZE_TRUMP);
+		return NO_CARDS | firstPlayer.ordinal() << START_PLAYER | trump.ordinal() << START_TRUMP;
 	}
 
 	/**
@@ -158,7 +160,7 @@ public class PackedTrick {
 	 */
 	public static Color trump(int pkTrick) {
 		assert isValid(pkTrick);
-		return Color.ALL.get(extract(pkTrick, START_TRUMP, SIZE_TRUMP));
+		return Color.ALL.get(extractUnchecked(pkTrick, START_TRUMP, SIZE_TRUMP));
 	}
 
 	/**
@@ -172,7 +174,7 @@ public class PackedTrick {
 	public static PlayerId player(int pkTrick, int index) {
 		assert isValid(pkTrick);
 		assert (index >= 0 && index < MAX_CARDS);
-		return PlayerId.ALL.get((extract(pkTrick, START_PLAYER, SIZE_PLAYER) + index) % PlayerId.COUNT);
+		return PlayerId.ALL.get((extractUnchecked(pkTrick, START_PLAYER, SIZE_PLAYER) + index) % PlayerId.COUNT);
 	}
 
 	/**
@@ -183,7 +185,7 @@ public class PackedTrick {
 	 */
 	public static int index(int pkTrick) {
 		assert isValid(pkTrick);
-		return extract(pkTrick, START_INDEX, SIZE_INDEX);
+		return extractUnchecked(pkTrick, START_INDEX, SIZE_INDEX);
 	}
 
 	/**
@@ -207,7 +209,7 @@ public class PackedTrick {
 	 * @return (int) : packed card at a given index of the packed trick
 	 */
 	private static int cardWithNoAssert(int pkTrick, int index) {
-		return extract(pkTrick, index * SIZE_CARD, SIZE_CARD);
+		return extractUnchecked(pkTrick, index * SIZE_CARD, SIZE_CARD);
 	}
 
 	/**
@@ -220,7 +222,7 @@ public class PackedTrick {
 	public static int withAddedCard(int pkTrick, int pkCard) {
 		assert isValid(pkTrick);
 		assert PackedCard.isValid(pkCard);
-		int mask = Bits32.mask((size(pkTrick) * SIZE_CARD), SIZE_CARD);
+		int mask = Bits32.maskUnchecked(size(pkTrick) * SIZE_CARD, SIZE_CARD);
 		return pkTrick & ~mask | (pkCard << (size(pkTrick) * SIZE_CARD));
 	}
 
@@ -236,7 +238,9 @@ public class PackedTrick {
 
 	/**
 	 * Compute a packed cardset of cards from the given hand that can be played next
-	 * in the packed trick (supposed not full)
+	 * in the packed trick (supposed not full). The rules are applied with the
+	 * masks of the colors and of the trumps above each card, without reading the
+	 * size of the trick
 	 * 
 	 * @param pkTrick (int)
 	 * @param pkHand  (long)
@@ -246,43 +250,71 @@ public class PackedTrick {
 		assert isValid(pkTrick);
 		assert PackedCardSet.isValid(pkHand);
 
-		if (size(pkTrick) == 0)
+		int firstCard = pkTrick & CARD_MASK;
+		if (firstCard == PackedCard.INVALID)
 			return pkHand;
 
-		Color baseColor = baseColor(pkTrick);
-		Color trump = trump(pkTrick);
-		long pkHandTrump = PackedCardSet.subsetOfColor(pkHand, trump);
-		long pkHandNoSmallTrump = pkHandTrump;
-		long pkHandNoSmallTrumpTemp = pkHandTrump;
-
-		// the set of the played cards
-		long trickSet = EMPTY;
-		for (int i = 0; i < size(pkTrick); ++i)
-			trickSet = add(trickSet, card(pkTrick, i));
-
-		if (baseColor == trump) {
-			if (pkHandTrump != 0 && pkHandTrump != singleton(Card.of(trump, Rank.JACK).packed()))
-				return pkHandTrump;
-			else
-				return pkHand;
-		} else {
-			// Hand without trump smaller than the one(s) pontentially already played
-			// for each trump card of the player tests if a better trump card is already
-			// played
-			for (int i = 0; i < PackedCardSet.size(pkHandTrump); ++i) {
-				if (intersection(trumpAbove(get(pkHandTrump, i)), trickSet) != 0)
-					pkHandNoSmallTrumpTemp = remove(pkHandNoSmallTrumpTemp, get(pkHandTrump, i));
-			}
-			// If the player has other card(s) than trump cards or a trump bigger than the
-			// one(s) played
-			// set trump card(s) with the trump card(s) bigger than the one(s) played
-			if (difference(pkHand, pkHandTrump) != 0 || pkHandNoSmallTrumpTemp > 0)
-				pkHandNoSmallTrump = pkHandNoSmallTrumpTemp;
-			if (subsetOfColor(pkHand, baseColor) != 0)
-				return union(pkHandNoSmallTrump, subsetOfColor(pkHand, baseColor(pkTrick)));
-			else
-				return difference(pkHand, subsetOfColor(complement(pkHandNoSmallTrump), trump));
+		int trump = pkTrick >>> START_TRUMP;
+		int baseColor = firstCard >>> SIZE_RANK;
+		long pkHandTrump = pkHand & COLOR_MASKS[trump];
+
+		// The trumps must be followed, except by a lone jack
+		if (baseColor == trump)
+			return pkHandTrump == EMPTY || pkHandTrump == LONE_JACKS[trump] ? pkHand : pkHandTrump;
+
+		// Trumps above the ones (if any) played by the second and third players, the
+		// first card not being a trump
+		long[] above = TRUMPS_ABOVE[trump];
+		long pkHandNoSmallTrump = pkHandTrump & above[(pkTrick >>> SIZE_CARD) & CARD_MASK]
+				& above[(pkTrick >>> 2 * SIZE_CARD) & CARD_MASK];
+		// A hand of small trumps only may undertrump
+		if (pkHandNoSmallTrump == EMPTY && pkHand == pkHandTrump)
+			return pkHand;
+
+		long pkHandBase = pkHand & COLOR_MASKS[baseColor];
+		if (pkHandBase != EMPTY)
+			return pkHandBase | pkHandNoSmallTrump;
+		return pkHand & ~pkHandTrump | pkHandNoSmallTrump;
+	}
+
+	/**
+	 * Create the masks of the trumps above each packed card, for each trump : all
+	 * the cards for a card which is not a trump, or for INVALID
+	 * 
+	 * @return (long[][]) : trumps above, indexed by trump and packed card
+	 */
+	private static long[][] tableTrumpsAbove() {
+		long[][] tab = new long[Color.COUNT][PackedCard.INVALID + 1];
+		for (Color trump : Color.ALL) {
+			Arrays.fill(tab[trump.ordinal()], PackedCardSet.ALL_CARDS);
+			for (Rank rank : Rank.ALL)
+				tab[trump.ordinal()][PackedCard.pack(trump, rank)] = trumpAbove(PackedCard.pack(trump, rank));
 		}
+		return tab;
+	}
+
+	/**
+	 * Create the masks of the cards of each color
+	 * 
+	 * @return (long[]) : cards of each color, indexed by ordinal
+	 */
+	private static long[] tableColorMasks() {
+		long[] tab = new long[Color.COUNT];
+		for (Color color : Color.ALL)
+			tab[color.ordinal()] = subsetOfColor(PackedCardSet.ALL_CARDS, color);
+		return tab;
+	}
+
+	/**
+	 * Create the singletons of the jack of each trump
+	 * 
+	 * @return (long[]) : jack of each color, indexed by ordinal
+	 */
+	private static long[] tableLoneJacks() {
+		long[] tab = new long[Color.COUNT];
+		for (Color color : Color.ALL)
+			tab[color.ordinal()] = singleton(Card.of(color, Rank.JACK).packed());
+		return tab;
 	}
 
 	/**
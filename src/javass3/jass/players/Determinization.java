@@ -0,0 +1,154 @@
+package javass3.jass.players;
+
+import java.util.SplittableRandom;
+
+import javass3.jass.Jass;
+import javass3.jass.ids.PlayerId;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Random deal of the cards the mcts player does not know to the other
+ * players, consistent with the number of cards each one still holds and with
+ * the cards each one is known not to hold. The hands are kept in a scratch
+ * array, so that sampling does not allocate anything
+ */
+final class Determinization {
+
+	// Number of constrained deals tried before ignoring the known voids
+	private static final int MAX_ATTEMPTS = 16;
+
+	private final PlayerId mcts;
+	private final long[] voids;
+	private final long[] hands = new long[PlayerId.COUNT];
+	private final int[] sizes = new int[PlayerId.COUNT];
+	private final int[] missing = new int[PlayerId.COUNT];
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param mcts  (PlayerId)
+	 * @param voids (long[]) : for each player, the packed cardset of the cards he
+	 *              is known not to hold
+	 */
+	Determinization(PlayerId mcts, long[] voids) {
+		this.mcts = mcts;
+		this.voids = voids.clone();
+	}
+
+	/**
+	 * Deal the unknown cards of the given state to the other players
+	 * 
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @param rng        (SplittableRandom)
+	 * @return (long[]) : packed hand of each player, indexed by ordinal. The array
+	 *         is overwritten by the next deal
+	 */
+	long[] sample(long pkUnplayed, int pkTrick, long pkHand, SplittableRandom rng) {
+		int tricksLeft = Jass.TRICKS_PER_TURN - PackedTrick.index(pkTrick);
+		for (PlayerId p : PlayerId.ALL)
+			sizes[p.ordinal()] = tricksLeft;
+		for (int i = 0; i < PackedTrick.size(pkTrick); ++i)
+			sizes[PackedTrick.player(pkTrick, i).ordinal()]--;
+
+		long unknown = PackedCardSet.difference(pkUnplayed, pkHand);
+		for (int attempt = 0; attempt < MAX_ATTEMPTS; ++attempt) {
+			if (deal(unknown, pkHand, rng, true))
+				return hands;
+		}
+		deal(unknown, pkHand, rng, false);
+		return hands;
+	}
+
+	/**
+	 * Deal the unknown cards, the ones only one player may hold first, and the
+	 * others in a random order, each one to a player chosen with a probability
+	 * proportional to the number of cards he still has to receive
+	 * 
+	 * @param unknown   (long) : cards to deal
+	 * @param pkHand    (long) : hand of the mcts player
+	 * @param rng       (SplittableRandom)
+	 * @param withVoids (boolean) : true iff the known voids must be respected
+	 * @return (boolean) : true iff all the cards have been dealt
+	 */
+	private boolean deal(long unknown, long pkHand, SplittableRandom rng, boolean withVoids) {
+		for (PlayerId p : PlayerId.ALL) {
+			hands[p.ordinal()] = PackedCardSet.EMPTY;
+			missing[p.ordinal()] = p == mcts ? 0 : sizes[p.ordinal()];
+		}
+		hands[mcts.ordinal()] = pkHand;
+
+		long left = unknown;
+		if (withVoids) {
+			for (long s = unknown; !PackedCardSet.isEmpty(s); s = PackedCardSet.withoutFirst(s)) {
+				int pkCard = PackedCardSet.first(s);
+				int holder = onlyHolder(pkCard);
+				if (holder >= 0) {
+					if (missing[holder] == 0)
+						return false;
+					give(holder, pkCard);
+					left = PackedCardSet.remove(left, pkCard);
+				}
+			}
+		}
+
+		while (!PackedCardSet.isEmpty(left)) {
+			int pkCard = PackedCardSet.get(left, rng.nextInt(PackedCardSet.size(left)));
+			left = PackedCardSet.remove(left, pkCard);
+			int total = 0;
+			for (int p = 0; p < PlayerId.COUNT; ++p)
+				total += mayHold(p, pkCard, withVoids) ? missing[p] : 0;
+			if (total == 0)
+				return false;
+			int r = rng.nextInt(total);
+			int holder = 0;
+			while (!mayHold(holder, pkCard, withVoids) || (r -= missing[holder]) >= 0)
+				++holder;
+			give(holder, pkCard);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the only other player who may hold the given card, if there is one
+	 * 
+	 * @param pkCard (int)
+	 * @return (int) : ordinal of the player, -1 if several players may hold it
+	 */
+	private int onlyHolder(int pkCard) {
+		int holder = -1;
+		for (int p = 0; p < PlayerId.COUNT; ++p) {
+			if (mayHold(p, pkCard, true)) {
+				if (holder >= 0)
+					return -1;
+				holder = p;
+			}
+		}
+		return holder;
+	}
+
+	/**
+	 * Check if the given player may receive the given card
+	 * 
+	 * @param p         (int) : ordinal of the player
+	 * @param pkCard    (int)
+	 * @param withVoids (boolean)
+	 * @return (boolean) : true iff the card may be dealt to the player
+	 */
+	private boolean mayHold(int p, int pkCard, boolean withVoids) {
+		return p != mcts.ordinal() && !(withVoids && PackedCardSet.contains(voids[p], pkCard));
+	}
+
+	/**
+	 * Give a card to a player
+	 * 
+	 * @param p      (int) : ordinal of the player
+	 * @param pkCard (int)
+	 */
+	private void give(int p, int pkCard) {
+		hands[p] = PackedCardSet.add(hands[p], pkCard);
+		missing[p]--;
+	}
+}
\ No newline at end of file
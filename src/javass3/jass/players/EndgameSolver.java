@@ -0,0 +1,202 @@
+package javass3.jass.players;
+
+import javass3.jass.ids.PlayerId;
+import javass3.jass.ids.TeamId;
+import javass3.jass.packed.PackedCard;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedColorPermutation;
+import javass3.jass.packed.PackedScore;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Exact solver of the end of a turn whose hands are all known, as they are in
+ * a determinization : an alpha-beta search over the packed states, the team of
+ * the mcts player maximizing its turn points and the other one minimizing
+ * them. The solved states are memorized, keyed by the canonical hands and
+ * trick and by the score, so that they are shared by all the deals that give
+ * the same hands up to a permutation of the interchangeable colors
+ */
+final class EndgameSolver {
+
+	private static final int MEMO_BITS = 14;
+	private static final int MAX_CARDS = 4;
+
+	// Kind of value memorized for a state
+	private static final byte EMPTY = 0;
+	private static final byte EXACT = 1;
+	private static final byte LOWER = 2;
+	private static final byte UPPER = 3;
+
+	private final TeamId team;
+	private final long[] memoHands = new long[1 << MEMO_BITS];
+	private final int[] memoTrick = new int[1 << MEMO_BITS];
+	private final long[] memoScore = new long[1 << MEMO_BITS];
+	private final long[] memoValue = new long[1 << MEMO_BITS];
+	private final byte[] memoBound = new byte[1 << MEMO_BITS];
+	private final byte[] memoMove = new byte[1 << MEMO_BITS];
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param mcts (PlayerId) : player whose team is maximizing
+	 */
+	EndgameSolver(PlayerId mcts) {
+		this.team = mcts.team();
+	}
+
+	/**
+	 * Get the final score of the turn when all the players play perfectly from
+	 * the given state
+	 * 
+	 * @param pkScore (long)
+	 * @param pkTrick (int)
+	 * @param hands   (long[]) : packed hand of each player, indexed by ordinal.
+	 *                It is restored before returning
+	 * @return (long) : final packed score of the turn
+	 */
+	long solve(long pkScore, int pkTrick, long[] hands) {
+		return search(pkScore, pkTrick, hands, -1, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Alpha-beta search of the given state. The best card memorized for the state,
+	 * if any, is tried first
+	 * 
+	 * @param pkScore (long)
+	 * @param pkTrick (int)
+	 * @param hands   (long[])
+	 * @param alpha   (int) : points the maximizing team is already sure to get
+	 * @param beta    (int) : points the minimizing team is already sure to
+	 *                concede at most
+	 * @return (long) : final packed score of the best line
+	 */
+	private long search(long pkScore, int pkTrick, long[] hands, int alpha, int beta) {
+		if (pkTrick == PackedTrick.INVALID)
+			return pkScore;
+
+		// The memorized moves are canonical ones
+		int permutation = PackedColorPermutation.canonical(pkTrick, hands);
+		int canonicalTrick = PackedColorPermutation.applyToTrick(permutation, pkTrick);
+		long handsKey = handsKey(hands, permutation);
+		int slot = slot(handsKey, canonicalTrick, pkScore);
+		int firstCard = PackedCard.INVALID;
+		if (memoBound[slot] != EMPTY && memoHands[slot] == handsKey && memoTrick[slot] == canonicalTrick
+				&& memoScore[slot] == pkScore) {
+			long value = memoValue[slot];
+			int points = PackedScore.turnPoints(value, team);
+			if (memoBound[slot] == EXACT || (memoBound[slot] == LOWER && points >= beta)
+					|| (memoBound[slot] == UPPER && points <= alpha))
+				return value;
+			if (memoMove[slot] != PackedCard.INVALID)
+				firstCard = PackedColorPermutation.applyToCard(PackedColorPermutation.inverse(permutation),
+						memoMove[slot]);
+		}
+
+		int size = PackedTrick.size(pkTrick);
+		PlayerId player = PackedTrick.player(pkTrick, size);
+		boolean isMaximizing = player.team() == team;
+		long playable = PackedTrick.playableCards(pkTrick, hands[player.ordinal()]);
+		if (firstCard != PackedCard.INVALID && !PackedCardSet.contains(playable, firstCard))
+			firstCard = PackedCard.INVALID;
+
+		int a = alpha;
+		int b = beta;
+		long best = PackedScore.INITIAL;
+		int bestPoints = isMaximizing ? -1 : Integer.MAX_VALUE;
+		int bestCard = PackedCard.INVALID;
+		long cards = firstCard == PackedCard.INVALID ? playable : PackedCardSet.remove(playable, firstCard);
+		int pkCard = firstCard == PackedCard.INVALID ? Long.numberOfTrailingZeros(cards) : firstCard;
+		while (a < b) {
+			long hand = hands[player.ordinal()];
+			hands[player.ordinal()] = PackedCardSet.remove(hand, pkCard);
+			long value = play(pkScore, pkTrick, size, pkCard, hands, a, b);
+			hands[player.ordinal()] = hand;
+
+			int points = PackedScore.turnPoints(value, team);
+			if (isMaximizing ? points > bestPoints : points < bestPoints) {
+				best = value;
+				bestPoints = points;
+				bestCard = pkCard;
+			}
+			if (isMaximizing)
+				a = Math.max(a, points);
+			else
+				b = Math.min(b, points);
+
+			if (pkCard != firstCard)
+				cards = PackedCardSet.remove(cards, pkCard);
+			if (PackedCardSet.isEmpty(cards))
+				break;
+			pkCard = Long.numberOfTrailingZeros(cards);
+		}
+
+		memoHands[slot] = handsKey;
+		memoTrick[slot] = canonicalTrick;
+		memoScore[slot] = pkScore;
+		memoValue[slot] = best;
+		memoBound[slot] = bestPoints <= alpha ? UPPER : bestPoints >= beta ? LOWER : EXACT;
+		memoMove[slot] = (byte) (bestCard == PackedCard.INVALID ? PackedCard.INVALID
+				: PackedColorPermutation.applyToCard(permutation, bestCard));
+		return best;
+	}
+
+	/**
+	 * Play the given card and search the resulting state
+	 * 
+	 * @param pkScore (long)
+	 * @param pkTrick (int)
+	 * @param size    (int) : size of the trick
+	 * @param pkCard  (int)
+	 * @param hands   (long[])
+	 * @param alpha   (int)
+	 * @param beta    (int)
+	 * @return (long) : final packed score of the best line
+	 */
+	private long play(long pkScore, int pkTrick, int size, int pkCard, long[] hands, int alpha, int beta) {
+		pkTrick = PackedTrick.withAddedCard(pkTrick, pkCard);
+		if (size + 1 == MAX_CARDS) {
+			pkScore = PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(pkTrick).team(),
+					PackedTrick.points(pkTrick));
+			pkTrick = PackedTrick.nextEmpty(pkTrick);
+		}
+		return search(pkScore, pkTrick, hands, alpha, beta);
+	}
+
+	/**
+	 * Hash the canonical hands of the players
+	 * 
+	 * @param hands       (long[])
+	 * @param permutation (int) : permutation giving the canonical hands
+	 * @return (long) : key of the hands
+	 */
+	private static long handsKey(long[] hands, int permutation) {
+		long key = 0L;
+		for (long hand : hands)
+			key = mix(key ^ PackedColorPermutation.applyToCardSet(permutation, hand));
+		return key;
+	}
+
+	/**
+	 * Get the slot of the memo table of a state
+	 * 
+	 * @param handsKey (long)
+	 * @param pkTrick  (int)
+	 * @param pkScore  (long)
+	 * @return (int) : slot
+	 */
+	private static int slot(long handsKey, int pkTrick, long pkScore) {
+		return (int) (mix(handsKey ^ pkTrick ^ mix(pkScore)) >>> (Long.SIZE - MEMO_BITS));
+	}
+
+	/**
+	 * Mix the bits of the given value, with the finalizer of MurmurHash3
+	 * 
+	 * @param h (long)
+	 * @return (long) : mixed value
+	 */
+	private static long mix(long h) {
+		h = (h ^ (h >>> 33)) * 0xFF51_AFD7_ED55_8CCDL;
+		h = (h ^ (h >>> 33)) * 0xC4CE_B9FE_1A85_EC53L;
+		return h ^ (h >>> 33);
+	}
+}
\ No newline at end of file
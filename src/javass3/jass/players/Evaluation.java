@@ -0,0 +1,131 @@
+package javass3.jass.players;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javass3.jass.components.Card;
+
+/**
+ * Result of the search of a position by a PositionEvaluator : the statistics
+ * of each card the player may play, for the team of the player
+ */
+public final class Evaluation {
+
+	private final Position position;
+	private final int iterations;
+	private final long nanos;
+	private final Map<Card, Integer> visits;
+	private final Map<Card, Integer> points;
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param position   (Position) : evaluated position
+	 * @param iterations (int) : iterations done
+	 * @param nanos      (long) : wall time of the search
+	 * @param visits     (Map<Card, Integer>) : visits of each card the player
+	 *                   may play
+	 * @param points     (Map<Card, Integer>) : total turn points of each card
+	 *                   the player may play
+	 */
+	Evaluation(Position position, int iterations, long nanos, Map<Card, Integer> visits,
+			Map<Card, Integer> points) {
+		this.position = position;
+		this.iterations = iterations;
+		this.nanos = nanos;
+		this.visits = Collections.unmodifiableMap(new LinkedHashMap<>(visits));
+		this.points = Collections.unmodifiableMap(new LinkedHashMap<>(points));
+	}
+
+	/**
+	 * Get the evaluated position
+	 * 
+	 * @return (Position) : position
+	 */
+	public Position position() {
+		return position;
+	}
+
+	/**
+	 * Get the number of iterations of the search
+	 * 
+	 * @return (int) : iterations
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the wall time of the search
+	 * 
+	 * @return (long) : duration in nanoseconds
+	 */
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * Get the visits of each card the player may play, 0 for the cards the
+	 * search has never tried
+	 * 
+	 * @return (Map<Card, Integer>) : unmodifiable map of the visits
+	 */
+	public Map<Card, Integer> visits() {
+		return visits;
+	}
+
+	/**
+	 * Get the total turn points of the simulations of each card the player may
+	 * play, for his team
+	 * 
+	 * @return (Map<Card, Integer>) : unmodifiable map of the points
+	 */
+	public Map<Card, Integer> points() {
+		return points;
+	}
+
+	/**
+	 * Get the mean turn points of the simulations of the given card, for the
+	 * team of the player
+	 * 
+	 * @param card (Card)
+	 * @return (double) : mean points, 0 if the card has not been visited
+	 */
+	public double meanPoints(Card card) {
+		int turns = visits.getOrDefault(card, 0);
+		return turns == 0 ? 0d : (double) points.get(card) / turns;
+	}
+
+	/**
+	 * Get the card with the best mean points, the one the player would play
+	 * 
+	 * @return (Card) : best card, null if no card has been visited
+	 */
+	public Card bestCard() {
+		Card best = null;
+		double bestValue = -1d;
+		for (Card card : visits.keySet()) {
+			double value = meanPoints(card);
+			if (bestValue < value) {
+				bestValue = value;
+				best = card;
+			}
+		}
+		return best;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringJoiner cards = new StringJoiner(", ", "{", "}");
+		for (Map.Entry<Card, Integer> e : visits.entrySet())
+			cards.add(String.format("%s=%d/%.1f", e.getKey(), e.getValue(), meanPoints(e.getKey())));
+		return String.format("%s : %d iterations in %.1f ms, cards %s", position.player(), iterations, nanos / 1e6,
+				cards);
+	}
+}
\ No newline at end of file
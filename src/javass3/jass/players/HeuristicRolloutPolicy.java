@@ -0,0 +1,124 @@
+package javass3.jass.players;
+
+import java.util.SplittableRandom;
+
+import javass3.jass.components.Card.Color;
+import javass3.jass.packed.PackedCard;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedLongTrick;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Rollout policy playing like a cautious player : the winner of the trick and
+ * the cards beating it are read from PackedLongTrick, and the cards are ranked
+ * by masks of the cards worth the same points, so that choosing a card only
+ * costs a few intersections. Some cards are still played at random, so that the
+ * rollouts do not all follow the same line
+ */
+final class HeuristicRolloutPolicy implements RolloutPolicy {
+
+	private static final int MAX_CARDS = 4;
+	// One card out of EXPLORATION is played at random
+	private static final int EXPLORATION = 8;
+	// Points from which a trick is worth a trump
+	private static final int MIN_RUFF_POINTS = 10;
+
+	// For each trump, the cards grouped by points, in increasing order of points
+	private static final long[][] LEVELS = levels();
+
+	/*
+	 * (non-Javadoc)
+	 * @see javass3.jass.players.RolloutPolicy#cardToPlay(int, long,
+	 * java.util.SplittableRandom)
+	 */
+	@Override
+	public int cardToPlay(int pkTrick, long playable, SplittableRandom rng) {
+		if (PackedTrick.isEmpty(pkTrick) || rng.nextInt(EXPLORATION) == 0)
+			return UNIFORM.cardToPlay(pkTrick, playable, rng);
+
+		long pkLongTrick = PackedLongTrick.of(pkTrick);
+		Color trumpColor = PackedTrick.trump(pkTrick);
+		int trump = trumpColor.ordinal();
+		long trumps = PackedCardSet.subsetOfColor(PackedCardSet.ALL_CARDS, trumpColor);
+		boolean isLast = PackedLongTrick.size(pkLongTrick) == MAX_CARDS - 1;
+		long discards = PackedCardSet.difference(playable, trumps);
+		if (PackedCardSet.isEmpty(discards))
+			discards = playable;
+
+		// The partner played two cards before : give him points when he is sure
+		// to win the trick
+		if (PackedLongTrick.isPartnerWinning(pkLongTrick))
+			return isLast ? dearest(discards, trump) : cheapest(discards, trump);
+
+		long beaters = PackedCardSet.intersection(playable, PackedLongTrick.beaters(pkLongTrick));
+		long overcards = PackedCardSet.difference(beaters, trumps);
+		if (!PackedCardSet.isEmpty(overcards))
+			return isLast ? cheapest(overcards, trump) : dearest(overcards, trump);
+		if (!PackedCardSet.isEmpty(beaters) && PackedLongTrick.points(pkLongTrick) >= MIN_RUFF_POINTS)
+			return cheapest(beaters, trump);
+		return cheapest(discards, trump);
+	}
+
+	/**
+	 * Get the card of the given set worth the fewest points, the lowest one for
+	 * equal points
+	 * 
+	 * @param pkCardSet (long) : not empty
+	 * @param trump     (int) : ordinal of the trump
+	 * @return (int) : packed card
+	 */
+	private static int cheapest(long pkCardSet, int trump) {
+		for (long level : LEVELS[trump]) {
+			long cards = PackedCardSet.intersection(pkCardSet, level);
+			if (!PackedCardSet.isEmpty(cards))
+				return Long.numberOfTrailingZeros(cards);
+		}
+		return Long.numberOfTrailingZeros(pkCardSet);
+	}
+
+	/**
+	 * Get the card of the given set worth the most points, the highest one for
+	 * equal points
+	 * 
+	 * @param pkCardSet (long) : not empty
+	 * @param trump     (int) : ordinal of the trump
+	 * @return (int) : packed card
+	 */
+	private static int dearest(long pkCardSet, int trump) {
+		long[] levels = LEVELS[trump];
+		for (int l = levels.length - 1; l >= 0; --l) {
+			long cards = PackedCardSet.intersection(pkCardSet, levels[l]);
+			if (!PackedCardSet.isEmpty(cards))
+				return Long.SIZE - 1 - Long.numberOfLeadingZeros(cards);
+		}
+		return Long.SIZE - 1 - Long.numberOfLeadingZeros(pkCardSet);
+	}
+
+	/**
+	 * Create the masks of the cards worth the same points, for each trump
+	 * 
+	 * @return (long[][]) : levels, indexed by trump, in increasing order of points
+	 */
+	private static long[][] levels() {
+		long[][] tab = new long[Color.COUNT][];
+		for (Color trump : Color.ALL) {
+			long[] byPoints = new long[Long.SIZE];
+			int count = 0;
+			for (int i = 0; i < PackedCardSet.size(PackedCardSet.ALL_CARDS); ++i) {
+				int pkCard = PackedCardSet.get(PackedCardSet.ALL_CARDS, i);
+				int points = PackedCard.points(trump, pkCard);
+				if (PackedCardSet.isEmpty(byPoints[points]))
+					++count;
+				byPoints[points] = PackedCardSet.add(byPoints[points], pkCard);
+			}
+			long[] levels = new long[count];
+			int l = 0;
+			for (long level : byPoints) {
+				if (!PackedCardSet.isEmpty(level))
+					levels[l++] = level;
+			}
+			tab[trump.ordinal()] = levels;
+		}
+		return tab;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,181 @@
+package javass3.jass.players;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javass3.jass.ids.PlayerId;
+
+/**
+ * Batch of rollouts simulating the same leaf concurrently, for a tree grown by
+ * a single thread. Each rollout of the batch has its own random generator, so
+ * that the simulated scores do not depend on the scheduling of the executor.
+ * The rollouts and the array of their scores are reused from one leaf to the
+ * next. The rollouts are claimed one by one, by the executor and by the calling
+ * thread, so that the calling thread only waits for the rollouts already
+ * running : it never blocks on rollouts queued behind it, for instance when it
+ * is itself a worker of the executor. A rollout failing on the executor makes
+ * the batch fail on the calling thread, once all the other rollouts are over
+ */
+final class LeafEvaluator {
+
+	private final PlayerId mcts;
+	private final RolloutPolicy policy;
+	private final Executor executor;
+	private final SplittableRandom[] rngs;
+	private final Runnable worker = this::runRollouts;
+	private final long[] scores;
+	private final long[][] handsCopies;
+	private final long[][] played;
+	// Next rollout to claim, and rollouts of the batch not over yet
+	private final AtomicInteger next = new AtomicInteger();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private volatile Thread waiter;
+
+	// Leaf being simulated, published to the executor with the rollouts
+	private long pkScore;
+	private long pkUnplayed;
+	private int pkTrick;
+	private long pkHand;
+	private long[] hands;
+	private long[] pathPlayed;
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param mcts     (PlayerId)
+	 * @param policy   (RolloutPolicy) : policy of the rollouts
+	 * @param size     (int) : number of rollouts of a batch
+	 * @param executor (Executor) : executor running the rollouts, null to run
+	 *                 them one after the other on the calling thread
+	 * @param rng      (SplittableRandom) : generator split for each rollout
+	 */
+	LeafEvaluator(PlayerId mcts, RolloutPolicy policy, int size, Executor executor, SplittableRandom rng) {
+		this.mcts = mcts;
+		this.policy = policy;
+		this.executor = executor;
+		this.rngs = new SplittableRandom[size];
+		this.scores = new long[size];
+		this.handsCopies = new long[size][PlayerId.COUNT];
+		this.played = new long[size][PlayerId.COUNT];
+		for (int i = 0; i < size; ++i)
+			rngs[i] = rng.split();
+		this.next.set(size);
+	}
+
+	/**
+	 * Get the number of rollouts of a batch
+	 * 
+	 * @return (int) : size of the batch
+	 */
+	int size() {
+		return scores.length;
+	}
+
+	/**
+	 * Simulate the given leaf with all the rollouts of the batch, the calling
+	 * thread running the ones the executor has not started yet
+	 * 
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @param hands      (long[]) : hands of a determinization, null if the other
+	 *                   players may play any card the mcts player does not hold
+	 * @param played     (long[]) : cards played by each player to reach the
+	 *                   leaf, null if the played cards are not needed
+	 * @return (long[]) : final packed score of each rollout. The array is
+	 *         overwritten by the next batch
+	 */
+	long[] evaluate(long pkScore, long pkUnplayed, int pkTrick, long pkHand, long[] hands, long[] played) {
+		this.pkScore = pkScore;
+		this.pkUnplayed = pkUnplayed;
+		this.pkTrick = pkTrick;
+		this.pkHand = pkHand;
+		this.hands = hands;
+		this.pathPlayed = played;
+
+		if (executor == null) {
+			for (int i = 0; i < scores.length; ++i)
+				scores[i] = rollout(i);
+			return scores;
+		}
+
+		waiter = Thread.currentThread();
+		failure.set(null);
+		pending.set(scores.length);
+		// Publishes the leaf and opens the batch to the workers
+		next.set(0);
+		try {
+			for (int i = 1; i < scores.length; ++i)
+				executor.execute(worker);
+		} catch (RejectedExecutionException e) {
+			// The rollouts that were not submitted are run below
+		}
+		runRollouts();
+		while (pending.get() > 0)
+			LockSupport.park(this);
+
+		Throwable t = failure.get();
+		if (t instanceof Error)
+			throw (Error) t;
+		if (t != null)
+			throw (RuntimeException) t;
+		return scores;
+	}
+
+	/**
+	 * Get the cards played by each player in the given rollout of the last batch,
+	 * including the ones played to reach the leaf
+	 * 
+	 * @param slot (int)
+	 * @return (long[]) : played cards, indexed by ordinal, null if they were not
+	 *         needed
+	 */
+	long[] played(int slot) {
+		return pathPlayed == null ? null : played[slot];
+	}
+
+	/**
+	 * Run the rollouts of the current batch that are not claimed yet. A worker
+	 * started after the end of its batch finds no rollout, or takes part in the
+	 * next batch
+	 */
+	private void runRollouts() {
+		int slot;
+		while ((slot = next.getAndIncrement()) < scores.length) {
+			try {
+				scores[slot] = rollout(slot);
+			} catch (Throwable t) {
+				failure.compareAndSet(null, t);
+			} finally {
+				if (pending.decrementAndGet() == 0)
+					LockSupport.unpark(waiter);
+			}
+		}
+	}
+
+	/**
+	 * Run the rollout of the given slot on the current leaf
+	 * 
+	 * @param slot (int)
+	 * @return (long) : final packed score of the rollout
+	 */
+	private long rollout(int slot) {
+		long[] slotPlayed = null;
+		if (pathPlayed != null) {
+			slotPlayed = played[slot];
+			System.arraycopy(pathPlayed, 0, slotPlayed, 0, PlayerId.COUNT);
+		}
+		if (hands == null)
+			return Rollout.endOfTurnScore(pkScore, pkUnplayed, pkTrick, pkHand, mcts, rngs[slot], policy,
+					slotPlayed);
+		long[] copy = handsCopies[slot];
+		System.arraycopy(hands, 0, copy, 0, PlayerId.COUNT);
+		return Rollout.endOfTurnScore(pkScore, pkTrick, copy, rngs[slot], policy, slotPlayed);
+	}
+}
\ No newline at end of file
@@ -1,33 +1,105 @@
 package javass3.jass.players;
 
 import static javass3.Preconditions.checkArgument;
-import static java.lang.Math.sqrt;
-import static java.lang.Math.log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinTask;
 
 import javass3.jass.Jass;
 import javass3.jass.components.Card;
 import javass3.jass.components.Card.Color;
 import javass3.jass.components.CardSet;
 import javass3.jass.components.Score;
+import javass3.jass.components.Trick;
 import javass3.jass.components.TurnState;
 import javass3.jass.ids.PlayerId;
+import javass3.jass.packed.PackedCard;
 import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedScore;
 import javass3.jass.packed.PackedTrick;
 
 public class MctsPlayer implements Player {
 	
 	private final PlayerId own;
+	private final long seed;
 	private final SplittableRandom rng;
 	private final int iterations;
+	private final int threads;
+	private final Parallelism parallelism;
+	private final ForkJoinPool workers;
+	private final NodePool[] trees;
+
+	// Background search while the other players are thinking
+	private Executor ponderExecutor;
+	private int ponderIterations;
+	private SearchBudget ponderBudget;
+	// Statistics shared by the nodes with the same state
+	private TranspositionTable table;
+	// Information set search, with the cards each player is known not to hold
+	private boolean informationSets;
+	private final long[] observedVoids = new long[PlayerId.COUNT];
+	// Exact search of the last cards of the determinized turns, one per tree
+	private int endgameCards;
+	private EndgameSolver[] solvers;
+	// Receiver of the statistics of the searches
+	private SearchListener listener;
+	// Number of deals simulated to choose the trump, 0 to use the heuristic
+	private int trumpDeals;
+	// Rollouts simulating each new node of a leaf-parallel search
+	private int leafRollouts;
+	private Executor leafExecutor;
+	// Maximum number of nodes of each tree
+	private int maxNodes = NodePool.UNBOUNDED;
+	// Choice of the cards played by the rollouts
+	private RolloutPolicy rolloutPolicy = RolloutPolicy.UNIFORM;
+	// Turn state as known from the notifications
+	private long observedScore = PackedScore.INITIAL;
+	private long observedUnplayed = PackedCardSet.ALL_CARDS;
+	private long observedHand = PackedCardSet.EMPTY;
 
 	private static final int EXPLORATION_NULL = 0;
 	private static final int EXPLORATION_FACTOR = 40;
 	private static final int MIN_ITERATION = Jass.HAND_SIZE;
 	private static final int MIN_POINTS_TRUMP = 16;
+	private static final int VIRTUAL_LOSS = 3;
+	private static final int MAX_DEPTH = Jass.TRICKS_PER_TURN * PlayerId.COUNT + 1;
+	private static final int MAX_TURN_POINTS = 257;
+	// Twice the nodes of a path to the end of the turn, so that a pruned tree
+	// still holds a whole path
+	private static final int MIN_NODES = 2 * MAX_DEPTH;
+	// Indices of the sums of points of a trump simulation
+	private static final int PASS = Color.COUNT;
+	private static final int DEALS = Color.COUNT + 1;
+
+	/**
+	 * Represent the way the iterations are spread over the threads
+	 */
+	public enum Parallelism {
+		/** one independent tree per thread, merged at the root */
+		ROOT,
+		/** one tree shared by all the threads */
+		TREE,
+		/**
+		 * one tree grown by the calling thread, each new node being simulated by a
+		 * batch of rollouts run by the threads
+		 */
+		LEAF,
+		/**
+		 * one new tree per thread, with a fixed share of the iterations and a
+		 * random generator derived from the seed, the state and the hand only, so
+		 * that a search can be replayed exactly. It ignores the deadlines, the
+		 * transposition table, the pondering and, with information sets, the voids
+		 * observed in the previous tricks
+		 */
+		DETERMINISTIC
+	}
 
 	/**
 	 * Public constructor
@@ -38,10 +110,380 @@ public class MctsPlayer implements Player {
 	 * @throws IllegalArgumentException
 	 */
 	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations) {
+		this(ownId, rngSeed, iterations, 1);
+	}
+
+	/**
+	 * Public constructor of a root-parallel player : the iterations are shared
+	 * between threads independent trees, whose root statistics are merged before
+	 * choosing the card. A given seed and number of threads always give the same
+	 * moves
+	 * 
+	 * @param ownId      (PlayerId)
+	 * @param rngSeed    (long)
+	 * @param iterations (int) : total number of iterations, over all trees
+	 * @param threads    (int) : number of trees built in parallel
+	 * @throws IllegalArgumentException
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, int threads) {
+		this(ownId, rngSeed, iterations, threads, Parallelism.ROOT);
+	}
+
+	/**
+	 * Public constructor of a parallel player, running its searches on the common
+	 * pool
+	 * 
+	 * @param ownId       (PlayerId)
+	 * @param rngSeed     (long)
+	 * @param iterations  (int) : total number of iterations, over all threads
+	 * @param threads     (int)
+	 * @param parallelism (Parallelism) : how the threads share the search
+	 * @throws IllegalArgumentException
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, int threads, Parallelism parallelism) {
+		this(ownId, rngSeed, iterations, threads, parallelism, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Public constructor of a parallel player running its searches on the given
+	 * pool, which may be shared by many players and is not shut down by them. The
+	 * parallelism of the pool bounds the number of threads really searching at
+	 * the same time
+	 * 
+	 * @param ownId       (PlayerId)
+	 * @param rngSeed     (long)
+	 * @param iterations  (int) : total number of iterations, over all threads
+	 * @param threads     (int)
+	 * @param parallelism (Parallelism) : how the threads share the search
+	 * @param workers     (ForkJoinPool) : pool running the searches, unused with
+	 *                    a single thread
+	 * @throws IllegalArgumentException
+	 */
+	public MctsPlayer(PlayerId ownId, long rngSeed, int iterations, int threads, Parallelism parallelism,
+			ForkJoinPool workers) {
 		checkArgument(iterations >= MIN_ITERATION);
+		checkArgument(threads >= 1);
+		checkArgument(parallelism != null);
+		checkArgument(workers != null);
 		this.own = ownId;
+		this.seed = rngSeed;
 		this.rng = new SplittableRandom(rngSeed);
 		this.iterations = iterations;
+		this.threads = threads;
+		this.parallelism = parallelism;
+		this.workers = threads > 1 ? workers : null;
+		this.trees = new NodePool[parallelism == Parallelism.ROOT || parallelism == Parallelism.DETERMINISTIC ? threads
+				: 1];
+		for (int i = 0; i < trees.length; ++i)
+			trees[i] = new NodePool();
+		this.leafRollouts = threads;
+		this.leafExecutor = workers;
+	}
+
+	/**
+	 * Get a root-parallel player using all the available cores
+	 * 
+	 * @param ownId      (PlayerId)
+	 * @param rngSeed    (long)
+	 * @param iterations (int)
+	 * @return (MctsPlayer) : new root-parallel player
+	 * @throws IllegalArgumentException
+	 */
+	public static MctsPlayer rootParallel(PlayerId ownId, long rngSeed, int iterations) {
+		return new MctsPlayer(ownId, rngSeed, iterations, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Get a tree-parallel player using all the available cores
+	 * 
+	 * @param ownId      (PlayerId)
+	 * @param rngSeed    (long)
+	 * @param iterations (int)
+	 * @return (MctsPlayer) : new tree-parallel player
+	 * @throws IllegalArgumentException
+	 */
+	public static MctsPlayer treeParallel(PlayerId ownId, long rngSeed, int iterations) {
+		return new MctsPlayer(ownId, rngSeed, iterations, Runtime.getRuntime().availableProcessors(),
+				Parallelism.TREE);
+	}
+
+	/**
+	 * Let the player search in the background from the current position while the
+	 * other players are choosing their card, the next call to cardToPlay starting
+	 * from the resulting tree. Each background search is stopped at the next
+	 * notification or after maxIterations iterations. A single executor with few
+	 * threads can be shared by the players of many tables, to bound the CPU they
+	 * use. Background searches make the moves depend on timing, so they are not
+	 * reproducible anymore
+	 * 
+	 * @param executor      (Executor) : executor running the background
+	 *                      searches, null to disable them
+	 * @param maxIterations (int) : maximal number of iterations of one background
+	 *                      search
+	 * @throws IllegalArgumentException
+	 */
+	public void setPondering(Executor executor, int maxIterations) {
+		checkArgument(maxIterations >= 0);
+		stopPondering();
+		this.ponderExecutor = executor;
+		this.ponderIterations = maxIterations;
+	}
+
+	/**
+	 * Let the searches share the statistics of the nodes that have the same state,
+	 * ie those reached by playing the same cards in another order. The table may
+	 * be shared by several players, and by the trees of a root-parallel player,
+	 * but the moves are then not reproducible anymore
+	 * 
+	 * @param table (TranspositionTable) : table of the statistics, null to
+	 *              disable it
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		stopPondering();
+		this.table = table;
+		// The entries of the nodes of the last search belong to the previous table
+		for (NodePool tree : trees)
+			tree.reset(own, sharedTable(), isDeterminized());
+	}
+
+	/**
+	 * Let the searches deal, at each iteration, the cards the player does not
+	 * know to the other players, consistently with the cards they have played
+	 * and with the colors they have shown not to hold. The other players then
+	 * only play cards they may really play, in the tree and in the simulations,
+	 * whose nodes are the information sets of the player. The tree-parallel search
+	 * does not deal the cards
+	 * 
+	 * @param enabled (boolean) : true iff the searches are information set ones
+	 */
+	public void setInformationSets(boolean enabled) {
+		stopPondering();
+		this.informationSets = enabled;
+		for (NodePool tree : trees)
+			tree.reset(own, sharedTable(), isDeterminized());
+	}
+
+	/**
+	 * Let the information set searches replace the random simulation by an exact
+	 * alpha-beta search of the dealt hands once few cards are left to play
+	 * 
+	 * @param maxUnplayedCards (int) : number of unplayed cards from which the
+	 *                         turn is solved, 0 to disable the solver
+	 * @throws IllegalArgumentException
+	 */
+	public void setEndgameSolver(int maxUnplayedCards) {
+		checkArgument(maxUnplayedCards >= 0 && maxUnplayedCards <= Jass.TRICKS_PER_TURN * PlayerId.COUNT);
+		stopPondering();
+		this.endgameCards = maxUnplayedCards;
+		if (maxUnplayedCards > 0 && solvers == null) {
+			solvers = new EndgameSolver[trees.length];
+			for (int i = 0; i < solvers.length; ++i)
+				solvers[i] = new EndgameSolver(own);
+		}
+	}
+
+	/**
+	 * Let the given listener receive the statistics of each search done to choose
+	 * a card. They are also recorded as flight recorder events named
+	 * javass3.MctsSearch when the recording of these events is enabled. The
+	 * statistics are only collected if one of them wants them
+	 * 
+	 * @param listener (SearchListener) : receiver of the statistics, null to
+	 *                 remove it
+	 */
+	public void setSearchListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the batch of rollouts of a leaf-parallel player : each node created by
+	 * the search is simulated rollouts times, and the iterations of the player
+	 * are shared between the rollouts of the batches. By default, there is one
+	 * rollout per thread, run on the pool of the player
+	 * 
+	 * @param rollouts (int) : number of rollouts of a batch
+	 * @param executor (Executor) : executor running the rollouts, null to run
+	 *                 them one after the other on the calling thread
+	 * @throws IllegalArgumentException
+	 */
+	public void setLeafRollouts(int rollouts, Executor executor) {
+		checkArgument(rollouts >= 1);
+		this.leafRollouts = rollouts;
+		this.leafExecutor = executor;
+	}
+
+	/**
+	 * Let the selection blend the statistics of the children with their
+	 * all-moves-as-first (RAVE) ones : each card played later in a simulation by
+	 * the player of a node counts as if it had been played at the node. Their
+	 * weight decreases as the children are visited. The statistics are not
+	 * collected by the tree-parallel searches
+	 * 
+	 * @param equivalence (int) : visits of a child for which both statistics have
+	 *                    the same weight, 0 to disable them
+	 * @throws IllegalArgumentException
+	 */
+	public void setRave(int equivalence) {
+		checkArgument(equivalence >= 0);
+		stopPondering();
+		for (NodePool tree : trees)
+			tree.setRave(equivalence);
+	}
+
+	/**
+	 * Let the number of children of a node grow with its visits (progressive
+	 * widening) : a node visited n times has at most coefficient * n^exponent
+	 * children, the most plausible cards being expanded first. This narrows the
+	 * first iterations of the wide nodes, such as the ones of the first trick
+	 * 
+	 * @param coefficient (double) : children allowed to a node visited once, 0
+	 *                    to expand all the children before selecting any
+	 * @param exponent    (double) : growth of the children with the visits,
+	 *                    strictly between 0 and 1
+	 * @throws IllegalArgumentException
+	 */
+	public void setProgressiveWidening(double coefficient, double exponent) {
+		checkArgument(coefficient >= 0d && exponent > 0d && exponent < 1d);
+		stopPondering();
+		for (NodePool tree : trees)
+			tree.setWidening(coefficient, exponent);
+	}
+
+	/**
+	 * Bound the number of nodes of each tree of the player, so that searches of
+	 * any length run in a bounded memory : when a tree is full, only the most
+	 * visited half of its nodes is kept, and the freed nodes are reused. A
+	 * tree-parallel search stops growing its tree when it is full
+	 * 
+	 * @param maxNodes (int) : maximum number of nodes of a tree
+	 * @throws IllegalArgumentException
+	 */
+	public void setMaxNodes(int maxNodes) {
+		checkArgument(maxNodes >= MIN_NODES);
+		stopPondering();
+		this.maxNodes = maxNodes;
+		for (NodePool tree : trees)
+			tree.setMaxNodes(maxNodes);
+	}
+
+	/**
+	 * Get the maximum number of nodes of each tree of the player
+	 * 
+	 * @return (int) : maximum number of nodes, Integer.MAX_VALUE if the trees
+	 *         are not bounded
+	 */
+	public int maxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * Get the memory the trees of the player may use, to size the heap of the
+	 * long searches
+	 * 
+	 * @return (long) : bytes of the trees when they are full, Long.MAX_VALUE if
+	 *         they are not bounded
+	 */
+	public long maxTreeBytes() {
+		if (maxNodes == NodePool.UNBOUNDED)
+			return Long.MAX_VALUE;
+		return (long) trees.length * maxNodes * NodePool.BYTES_PER_NODE;
+	}
+
+	/**
+	 * Set the policy choosing the cards played by the rollouts of the searches
+	 * and of the simulated trump choice. By default, they are played uniformly
+	 * at random
+	 * 
+	 * @param policy (RolloutPolicy) : policy of the rollouts, for instance
+	 *               RolloutPolicy.HEURISTIC
+	 * @throws IllegalArgumentException
+	 */
+	public void setRolloutPolicy(RolloutPolicy policy) {
+		checkArgument(policy != null);
+		stopPondering();
+		this.rolloutPolicy = policy;
+	}
+
+	/**
+	 * Let the player choose the trump by simulation : the unknown cards are dealt
+	 * at random to the other players, and each deal is played out at random with
+	 * every trump, and after a pass when it is allowed. The trump giving the most
+	 * points on average is chosen. The deals are spread over the threads of the
+	 * player, and stop at the deadline of the choice if there is one
+	 * 
+	 * @param deals (int) : number of deals, 0 to choose the trump with the
+	 *              strength of the hand in each color
+	 * @throws IllegalArgumentException
+	 */
+	public void setTrumpSimulations(int deals) {
+		checkArgument(deals >= 0);
+		this.trumpDeals = deals;
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.epfl.javass.jass.Player#updateHand(ch.epfl.javass.jass.CardSet)
+	 */
+	@Override
+	public void updateHand(CardSet newHand) {
+		observedHand = newHand.packed();
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.epfl.javass.jass.Player#setTrump(ch.epfl.javass.jass.Card.Color)
+	 */
+	@Override
+	public void setTrump(Color trump) {
+		// A new turn begins, its score is announced before the trump
+		stopPondering();
+		observedUnplayed = PackedCardSet.ALL_CARDS;
+		observedScore = PackedScore.nextTurn(observedScore);
+		Arrays.fill(observedVoids, PackedCardSet.EMPTY);
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.epfl.javass.jass.Player#updateScore(ch.epfl.javass.jass.Score)
+	 */
+	@Override
+	public void updateScore(Score score) {
+		observedScore = score.packed();
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.epfl.javass.jass.Player#updateTrick(ch.epfl.javass.jass.Trick)
+	 */
+	@Override
+	public void updateTrick(Trick newTrick) {
+		int pkTrick = newTrick.packed();
+		if (pkTrick == PackedTrick.INVALID)
+			return;
+		for (int i = 0; i < PackedTrick.size(pkTrick); ++i)
+			observedUnplayed = PackedCardSet.remove(observedUnplayed, PackedTrick.card(pkTrick, i));
+		observeVoids(pkTrick);
+		ponder(pkTrick);
+	}
+
+	/**
+	 * Deduce from the cards of the trick the cards their players cannot hold : a
+	 * card is excluded for a player if holding it together with the card he
+	 * played would have made that card unplayable, which stays true whatever the
+	 * other cards of his hand
+	 * 
+	 * @param pkTrick (int)
+	 */
+	private void observeVoids(int pkTrick) {
+		int before = PackedTrick.firstEmpty(PackedTrick.trump(pkTrick), PackedTrick.player(pkTrick, 0));
+		for (int i = 0; i < PackedTrick.size(pkTrick); ++i) {
+			int played = PackedTrick.card(pkTrick, i);
+			int p = PackedTrick.player(pkTrick, i).ordinal();
+			long others = PackedCardSet.difference(PackedCardSet.ALL_CARDS, observedVoids[p]);
+			for (long s = others; !PackedCardSet.isEmpty(s); s = PackedCardSet.withoutFirst(s)) {
+				int pkCard = PackedCardSet.first(s);
+				long pair = PackedCardSet.add(PackedCardSet.singleton(played), pkCard);
+				if (!PackedCardSet.contains(PackedTrick.playableCards(before, pair), played))
+					observedVoids[p] = PackedCardSet.add(observedVoids[p], pkCard);
+			}
+			before = PackedTrick.withAddedCard(before, played);
+		}
 	}
 
 	/*
@@ -51,203 +493,734 @@ public class MctsPlayer implements Player {
 	 */
 	@Override
 	public Card cardToPlay(TurnState state, CardSet hand) {
-		Node tree = new Node(state, own, hand.packed());
-		computeTree(tree);
-		return state.trick().playableCards(hand).get(tree.bestChildIndex(EXPLORATION_NULL));
+		return cardToPlay(state, hand, SearchBudget.NO_DEADLINE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javass3.jass.players.Player#cardToPlay(javass3.jass.components.TurnState,
+	 * javass3.jass.components.CardSet, long)
+	 */
+	@Override
+	public Card cardToPlay(TurnState state, CardSet hand, long deadline) {
+		stopPondering();
+		SearchEvent event = new SearchEvent();
+		SearchRecorder[] recorders = null;
+		if (listener != null || event.isEnabled()) {
+			recorders = new SearchRecorder[workers == null ? 1 : threads];
+			for (int i = 0; i < recorders.length; ++i)
+				recorders[i] = new SearchRecorder();
+		}
+		event.begin();
+		long start = System.nanoTime();
+
+		int card;
+		if (parallelism == Parallelism.DETERMINISTIC) {
+			card = rootParallelBestCard(state, hand.packed(), deadline, recorders, true);
+		} else if (workers != null && parallelism == Parallelism.ROOT) {
+			card = rootParallelBestCard(state, hand.packed(), deadline, recorders, false);
+		} else if (workers != null && parallelism == Parallelism.TREE) {
+			card = treeParallelBestCard(state, hand.packed(), deadline, recorders);
+		} else if (parallelism == Parallelism.LEAF) {
+			card = leafParallelBestCard(state, hand.packed(), deadline, recorders);
+		} else {
+			NodePool tree = trees[0];
+			int root = treeRoot(tree, state, hand.packed());
+			computeTree(tree, root, rng, determinization(), solver(0), null, recorder(recorders, 0),
+					new SearchBudget(iterations, deadline), true);
+			card = tree.card(tree.bestChild(root, EXPLORATION_NULL));
+		}
+
+		if (recorders != null)
+			report(statistics(recorders, System.nanoTime() - start), event);
+		return Card.ofPacked(card);
 	}
 
 	/**
-	 * Build a MonteCarlo tree
+	 * Search the given position on the calling thread, from a new tree and with
+	 * the budget of the position, and get the statistics of all the cards the
+	 * player may play, the ones never searched having no visits. The search is
+	 * not stopped early, so that every card gets its share of the iterations
 	 * 
-	 * @param tree (Node)
+	 * @param position (Position) : position whose player is the player
+	 * @param rng      (SplittableRandom) : random generator of the search
+	 * @return (Evaluation) : evaluation of the position
 	 */
-	private void computeTree(Node tree) {
-		List<Node> path = new ArrayList<>();
-		for (int i = 0; i < iterations; ++i) {
-			path.add(tree);
-			path = tree.addNewNode(own, path);
-			propagation(path);
-			path.clear();
+	Evaluation evaluate(Position position, SplittableRandom rng) {
+		stopPondering();
+		long start = System.nanoTime();
+		long deadline = position.maxNanos() == 0 ? SearchBudget.NO_DEADLINE : start + position.maxNanos();
+		TurnState state = position.state();
+		NodePool tree = trees[0];
+		tree.reset(own, sharedTable(), isDeterminized());
+		int root = tree.root(state.packedScore(), state.packedUnplayedCards(), state.packedTrick(),
+				position.hand().packed());
+		computeTree(tree, root, rng, determinization(), solver(0), null, null,
+				new SearchBudget(position.iterations(), deadline), false);
+
+		Map<Card, Integer> visits = new LinkedHashMap<>();
+		Map<Card, Integer> points = new LinkedHashMap<>();
+		long playable = PackedTrick.playableCards(state.packedTrick(), position.hand().packed());
+		for (long s = playable; !PackedCardSet.isEmpty(s); s = PackedCardSet.withoutFirst(s)) {
+			visits.put(Card.ofPacked(PackedCardSet.first(s)), 0);
+			points.put(Card.ofPacked(PackedCardSet.first(s)), 0);
+		}
+		for (int c = tree.firstChild(root); c != NodePool.NONE; c = tree.nextSibling(c)) {
+			visits.put(Card.ofPacked(tree.card(c)), tree.turns(c));
+			points.put(Card.ofPacked(tree.card(c)), tree.points(c));
 		}
+		return new Evaluation(position, tree.turns(root), System.nanoTime() - start, visits, points);
 	}
 
 	/**
-	 * Update the points and turns of all nodes on path
+	 * Gather the statistics of the search that has just been done
 	 * 
-	 * @param path (List<Node>)
+	 * @param recorders (SearchRecorder[]) : recorders of the threads of the
+	 *                  search
+	 * @param nanos     (long) : wall time of the search
+	 * @return (SearchStatistics) : statistics of the search
 	 */
-	private void propagation(List<Node> path) {
-		Score simulatedScore = path.get(path.size() - 1).endOfTurnScore(rng, own);
-		for (int i = 0; i < path.size(); ++i) {
-			Node node = path.get(i);
-			if (i == 0) {
-				node.points += simulatedScore.turnPoints(own.team().other());
-				node.turns++;
-			} else {
-				node.points += simulatedScore.turnPoints(path.get(i - 1).current.nextPlayer().team());
-				node.turns++;
-			}
+	private SearchStatistics statistics(SearchRecorder[] recorders, long nanos) {
+		int iterations = 0;
+		long depthSum = 0;
+		int maxDepth = 0;
+		long allocatedBytes = 0;
+		for (SearchRecorder recorder : recorders) {
+			iterations += recorder.iterations();
+			depthSum += recorder.depthSum();
+			maxDepth = Math.max(maxDepth, recorder.maxDepth());
+			allocatedBytes = allocatedBytes < 0 || recorder.allocatedBytes() < 0 ? -1
+					: allocatedBytes + recorder.allocatedBytes();
 		}
+
+		// The root of a tree is always its first node once the search is done
+		int nodes = 0;
+		int[] visits = new int[Long.SIZE];
+		for (NodePool tree : trees) {
+			nodes += tree.size();
+			if (tree.size() == 0)
+				continue;
+			for (int c = tree.firstChild(0); c != NodePool.NONE; c = tree.nextSibling(c))
+				visits[tree.card(c)] += tree.turns(c);
+		}
+		Map<Card, Integer> rootVisits = new LinkedHashMap<>();
+		for (int c = 0; c < visits.length; ++c) {
+			if (visits[c] > 0)
+				rootVisits.put(Card.ofPacked(c), visits[c]);
+		}
+		return new SearchStatistics(own, iterations, nanos, nodes, maxDepth,
+				iterations == 0 ? 0d : (double) depthSum / iterations, rootVisits, allocatedBytes);
 	}
-	
-	/* (non-Javadoc)
-	 * @see ch.epfl.javass.jass.Player#trumpToChoose(ch.epfl.javass.jass.CardSet, boolean)
+
+	/**
+	 * Send the statistics of a search to the listener and to the flight recorder
+	 * 
+	 * @param statistics (SearchStatistics)
+	 * @param event      (SearchEvent) : event begun with the search
 	 */
-	@Override
-	public Color trumpToChoose(CardSet hand, boolean canPass) {
-		Color bestColor = null;
-        int maxPoints = 0;
-        for (Color c : Color.ALL) {
-            CardSet colorCard = hand.subsetOfColor(c);
-            int sum = 0;
-            for (int i = 0; i < colorCard.size();++i)
-                sum += colorCard.get(i).rank().trumpOrdinal();
-            if (maxPoints < sum) {
-                bestColor = c;
-                maxPoints = sum;
-            }
-        }           
-        return (canPass && maxPoints < MIN_POINTS_TRUMP) ? null : bestColor;
+	private void report(SearchStatistics statistics, SearchEvent event) {
+		if (event.shouldCommit()) {
+			event.player = statistics.player().name();
+			event.iterations = statistics.iterations();
+			event.rolloutsPerSecond = statistics.rolloutsPerSecond();
+			event.nodes = statistics.nodes();
+			event.maxDepth = statistics.maxDepth();
+			event.meanDepth = statistics.meanDepth();
+			event.rootVisits = statistics.rootVisits().toString();
+			event.allocatedBytes = statistics.allocatedBytes();
+			event.commit();
+		}
+		if (listener != null)
+			listener.searchDone(statistics);
 	}
 
 	/**
-	 * Represent a node of the tree
+	 * Start a background search from the observed state, if pondering is enabled
+	 * and the next card is to be played by another player
+	 * 
+	 * @param pkTrick (int) : current trick
 	 */
-	private final static class Node {
+	private void ponder(int pkTrick) {
+		stopPondering();
+		if (ponderExecutor == null || ponderIterations == 0 || parallelism == Parallelism.DETERMINISTIC)
+			return;
 
-		private final TurnState current;
-		private final Node[] children;
-		private long hand;
-		private int turns;
-		private int points;
-		private long cardToPlay;
+		long pkScore = observedScore;
+		if (PackedTrick.isFull(pkTrick)) {
+			pkScore = PackedScore.withAdditionalTrick(pkScore, PackedTrick.winningPlayer(pkTrick).team(),
+					PackedTrick.points(pkTrick));
+			pkTrick = PackedTrick.nextEmpty(pkTrick);
+		}
+		// The cards of the last trick are forced, there is nothing to search
+		if (pkTrick == PackedTrick.INVALID || PackedTrick.isLast(pkTrick)
+				|| PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)) == own || !PackedScore.isValid(pkScore))
+			return;
 
-		private Node(TurnState current, PlayerId mctsPlayer, long pkHand) {
-			this.current = current;
-			this.hand = pkHand;
-			this.cardToPlay = potentialCard(current, mctsPlayer, hand);
-			this.children = new Node[PackedCardSet.size(cardToPlay)];
-			this.turns = 0;
-			this.points = 0;
+		TurnState state = TurnState.ofPackedComponents(pkScore, observedUnplayed, pkTrick);
+		long pkHand = observedHand;
+		NodePool tree = trees[0];
+		SearchBudget budget = new SearchBudget(ponderIterations, SearchBudget.NO_DEADLINE);
+		SplittableRandom ponderRng = rng.split();
+		Determinization ponderDeterminization = determinization();
+		EndgameSolver ponderSolver = solver(0);
+		ponderBudget = budget;
+		ponderExecutor.execute(() -> {
+			// The tree is only touched while holding its lock, and not at all once the
+			// search is stopped
+			synchronized (tree) {
+				if (!budget.isStopped())
+					computeTree(tree, treeRoot(tree, state, pkHand), ponderRng, ponderDeterminization, ponderSolver,
+							null, null, budget, false);
+			}
+		});
+	}
+
+	/**
+	 * Stop the background search, if any, and wait until it has released the tree
+	 */
+	private void stopPondering() {
+		if (ponderBudget != null) {
+			ponderBudget.stop();
+			ponderBudget = null;
+			synchronized (trees[0]) {
+			}
 		}
+	}
 
-		/**
-		 * Create a packed cardset with all the possible playable cards
-		 * 
-		 * @param turnState (TurnState)
-		 * @param mcts      (PlayerId)
-		 * @param hand      (long)
-		 * @return a PackedCardSet with all possible children
-		 */
-		private long potentialCard(TurnState ts, PlayerId mcts, long hand) {
-			if (!ts.isTerminal()) {
-				if (mcts.equals(ts.nextPlayer()))
-					return PackedTrick.playableCards(ts.packedTrick(), hand);
-				else
-					return PackedTrick.playableCards(current.packedTrick(),
-							PackedCardSet.difference(ts.packedUnplayedCards(), hand));
-			} else {
-				return PackedCardSet.EMPTY;
+	/**
+	 * Build threads independent trees on the pool, each one with its own split of
+	 * the random generator, and merge the statistics of their root children
+	 * 
+	 * @param state        (TurnState)
+	 * @param pkHand       (long)
+	 * @param deadline     (long)
+	 * @param recorders    (SearchRecorder[]) : recorders of the trees, null if
+	 *                     the search is not recorded
+	 * @param isReplayable (boolean) : true iff the search must only depend on
+	 *                     the seed, the state and the hand
+	 * @return (int) : the best packed card
+	 */
+	private int rootParallelBestCard(TurnState state, long pkHand, long deadline, SearchRecorder[] recorders,
+			boolean isReplayable) {
+		SplittableRandom searchRng = rng;
+		if (isReplayable) {
+			// Nothing depends on the previous searches nor on the clock
+			searchRng = new SplittableRandom(seed ^ TranspositionTable.key(state.packedScore(),
+					state.packedUnplayedCards(), state.packedTrick(), pkHand, own.team()));
+			deadline = SearchBudget.NO_DEADLINE;
+		}
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			// Splits are done here, in order, so that the moves are reproducible
+			SplittableRandom treeRng = searchRng.split();
+			Determinization treeDeterminization = isReplayable ? replayableDeterminization() : determinization();
+			EndgameSolver treeSolver = solver(i);
+			SearchRecorder treeRecorder = recorder(recorders, i);
+			int treeIterations = iterations / threads + (i < iterations % threads ? 1 : 0);
+			NodePool tree = trees[i];
+			long treeDeadline = deadline;
+			ForkJoinTask<?> task = ForkJoinTask.adapt(() -> {
+				int root = isReplayable ? newTreeRoot(tree, state, pkHand) : treeRoot(tree, state, pkHand);
+				// A tree cannot know if the merged statistics are decided
+				computeTree(tree, root, treeRng, treeDeterminization, treeSolver, null, treeRecorder,
+						new SearchBudget(treeIterations, treeDeadline), false);
+			});
+			// A replayable search with a single thread has no pool
+			if (workers == null)
+				task.invoke();
+			else
+				workers.execute(task);
+			tasks.add(task);
+		}
+
+		long[] points = new long[Long.SIZE];
+		long[] turns = new long[Long.SIZE];
+		for (int i = 0; i < threads; ++i) {
+			tasks.get(i).join();
+			NodePool tree = trees[i];
+			for (int c = tree.firstChild(0); c != NodePool.NONE; c = tree.nextSibling(c)) {
+				points[tree.card(c)] += tree.points(c);
+				turns[tree.card(c)] += tree.turns(c);
 			}
 		}
 
-		/**
-		 * Add (if possible) a new node on the tree
-		 * 
-		 * @param mcts (PlayerId)
-		 * @param list (List<Node>)
-		 * @return (List<Node>) : path from the root to the new node
-		 */
-		private List<Node> addNewNode(PlayerId mcts, List<Node> list) {
-			// Check if every possible child already exists
-			if (!PackedCardSet.isEmpty(cardToPlay)) {
-				TurnState ts = current;
-				int index = children.length - PackedCardSet.size(cardToPlay);
-				int card = PackedCardSet.get(cardToPlay, 0);
-
-				ts = ts.withNewCardPlayedAndTrickCollected(Card.ofPacked(card));
-				cardToPlay = PackedCardSet.remove(cardToPlay, card);
-				children[index] = new Node(ts, mcts, PackedCardSet.remove(hand, card));
-				list.add(children[index]);
-				return list;
+		long playable = PackedTrick.playableCards(state.packedTrick(), pkHand);
+		int bestCard = PackedCard.INVALID;
+		double bestValue = -1d;
+		for (long s = playable; !PackedCardSet.isEmpty(s); s = PackedCardSet.withoutFirst(s)) {
+			int card = PackedCardSet.first(s);
+			double value = turns[card] == 0 ? 0d : (double) points[card] / turns[card];
+			if (bestValue < value) {
+				bestValue = value;
+				bestCard = card;
 			}
+		}
+		return bestCard;
+	}
+
+	/**
+	 * Build one tree shared by threads workers, each one with its own split of the
+	 * random generator
+	 * 
+	 * @param state     (TurnState)
+	 * @param pkHand    (long)
+	 * @param deadline  (long)
+	 * @param recorders (SearchRecorder[]) : recorders of the workers, null if the
+	 *                  search is not recorded
+	 * @return (int) : the best packed card
+	 */
+	private int treeParallelBestCard(TurnState state, long pkHand, long deadline, SearchRecorder[] recorders) {
+		NodePool tree = trees[0];
+		int root = treeRoot(tree, state, pkHand);
+		// Each iteration creates at most one node, the pool being full for the
+		// last ones if the tree is bounded
+		tree.makeRoom(root, iterations);
+		SearchBudget budget = new SearchBudget(iterations, deadline);
+		List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+		for (int i = 0; i < threads; ++i) {
+			SplittableRandom workerRng = rng.split();
+			SearchRecorder workerRecorder = recorder(recorders, i);
+			tasks.add(workers.submit(() -> computeSharedTree(tree, root, workerRng, workerRecorder, budget)));
+		}
+		for (ForkJoinTask<?> task : tasks)
+			task.join();
+		return tree.card(tree.bestChild(root, EXPLORATION_NULL));
+	}
 
-			if (current.isTerminal())
-				return list;
+	/**
+	 * Grow one tree on the calling thread, each new node being simulated by a
+	 * batch of rollouts
+	 * 
+	 * @param state     (TurnState)
+	 * @param pkHand    (long)
+	 * @param deadline  (long)
+	 * @param recorders (SearchRecorder[]) : recorders of the search, null if it
+	 *                  is not recorded
+	 * @return (int) : the best packed card
+	 */
+	private int leafParallelBestCard(TurnState state, long pkHand, long deadline, SearchRecorder[] recorders) {
+		NodePool tree = trees[0];
+		int root = treeRoot(tree, state, pkHand);
+		LeafEvaluator leaves = new LeafEvaluator(own, rolloutPolicy, leafRollouts, leafExecutor, rng);
+		int leafIterations = (iterations + leafRollouts - 1) / leafRollouts;
+		computeTree(tree, root, rng, determinization(), solver(0), leaves, recorder(recorders, 0),
+				new SearchBudget(leafIterations, deadline), true);
+		return tree.card(tree.bestChild(root, EXPLORATION_NULL));
+	}
 
-			Node bestChild = children[bestChildIndex(EXPLORATION_FACTOR)];
-			list.add(bestChild);
-			return bestChild.addNewNode(mcts, list);
+	/**
+	 * Get the root of the tree for the given state : the matching node of the tree
+	 * of the last search, with all its statistics, if the state is one of its
+	 * descendants, or a new tree otherwise
+	 * 
+	 * @param tree   (NodePool)
+	 * @param state  (TurnState)
+	 * @param pkHand (long)
+	 * @return (int) : the root node
+	 */
+	private int treeRoot(NodePool tree, TurnState state, long pkHand) {
+		if (tree.size() > 0) {
+			int node = tree.find(0, state.packedScore(), state.packedUnplayedCards(), state.packedTrick(), pkHand);
+			if (node != NodePool.NONE)
+				return tree.compact(node);
 		}
+		return newTreeRoot(tree, state, pkHand);
+	}
 
-		/**
-		 * Get best child index after computing MonteCarlo tree search
-		 * 
-		 * @param constant (int)
-		 * @return (int) : index of the best child
-		 */
-		private int bestChildIndex(int constant) {
-			double bestChildValue = 0d;
-			int index = 0;
-			for (int i = 0; i < children.length; i++) {
-				double currentChildValue = applyFormula(this, children[i], constant);
-				if (bestChildValue < currentChildValue || i == 0) {
-					bestChildValue = currentChildValue;
-					index = i;
+	/**
+	 * Empty the tree and create its root for the given state
+	 * 
+	 * @param tree   (NodePool)
+	 * @param state  (TurnState)
+	 * @param pkHand (long)
+	 * @return (int) : the root node
+	 */
+	private int newTreeRoot(NodePool tree, TurnState state, long pkHand) {
+		tree.reset(own, sharedTable(), isDeterminized());
+		return tree.root(state.packedScore(), state.packedUnplayedCards(), state.packedTrick(), pkHand);
+	}
+
+	/**
+	 * Get the transposition table of the trees, if they may use one
+	 * 
+	 * @return (TranspositionTable) : table of the trees, null if there is none
+	 */
+	private TranspositionTable sharedTable() {
+		return parallelism == Parallelism.DETERMINISTIC ? null : table;
+	}
+
+	/**
+	 * Check if the searches deal the unknown cards at each iteration
+	 * 
+	 * @return (boolean) : true iff the information sets are enabled for the
+	 *         parallelism of the player
+	 */
+	private boolean isDeterminized() {
+		return informationSets && (workers == null || parallelism != Parallelism.TREE);
+	}
+
+	/**
+	 * Get a new determinization of the observed voids, if the searches deal the
+	 * unknown cards
+	 * 
+	 * @return (Determinization) : new determinization, null if there is none
+	 */
+	private Determinization determinization() {
+		return isDeterminized() ? new Determinization(own, observedVoids) : null;
+	}
+
+	/**
+	 * Get a new determinization ignoring the observed voids, which depend on the
+	 * previous tricks rather than on the state, if the searches deal the unknown
+	 * cards
+	 * 
+	 * @return (Determinization) : new determinization, null if there is none
+	 */
+	private Determinization replayableDeterminization() {
+		return isDeterminized() ? new Determinization(own, new long[PlayerId.COUNT]) : null;
+	}
+
+	/**
+	 * Get the endgame solver of the given tree, if the searches use one
+	 * 
+	 * @param tree (int) : index of the tree
+	 * @return (EndgameSolver) : solver of the tree, null if there is none
+	 */
+	private EndgameSolver solver(int tree) {
+		return isDeterminized() && endgameCards > 0 ? solvers[tree] : null;
+	}
+
+	/**
+	 * Get the recorder of the given thread of the search, if the search is
+	 * recorded
+	 * 
+	 * @param recorders (SearchRecorder[]) : recorders of the search, null if it
+	 *                  is not recorded
+	 * @param thread    (int) : index of the thread
+	 * @return (SearchRecorder) : recorder of the thread, null if there is none
+	 */
+	private static SearchRecorder recorder(SearchRecorder[] recorders, int thread) {
+		return recorders == null ? null : recorders[thread];
+	}
+
+	/**
+	 * Run iterations on a tree shared with other threads. Each node of the path
+	 * carries a virtual loss until the simulated score is propagated, so that the
+	 * other threads go down other branches meanwhile
+	 * 
+	 * @param tree     (NodePool)
+	 * @param root     (int)
+	 * @param rng      (SplittableRandom) : random generator of this thread
+	 * @param recorder (SearchRecorder) : recorder of this thread, null if there
+	 *                 is none
+	 * @param budget   (SearchBudget) : budget shared by all the threads
+	 */
+	private void computeSharedTree(NodePool tree, int root, SplittableRandom rng, SearchRecorder recorder,
+			SearchBudget budget) {
+		if (recorder != null)
+			recorder.start();
+		int[] path = new int[MAX_DEPTH];
+		while (budget.tryStart()) {
+			int length = 0;
+			int node = root;
+			tree.addVirtualLoss(node, VIRTUAL_LOSS);
+			path[length++] = node;
+			while (true) {
+				int child = tree.expandConcurrently(node, VIRTUAL_LOSS);
+				if (child != NodePool.NONE) {
+					path[length++] = child;
+					break;
 				}
+				// Children claimed by other threads may not be published yet
+				if (tree.isTerminal(node) || (node = tree.bestChild(node, EXPLORATION_FACTOR)) == NodePool.NONE)
+					break;
+				tree.addVirtualLoss(node, VIRTUAL_LOSS);
+				path[length++] = node;
 			}
-			return index;
+
+			long simulatedScore = endOfTurnScore(tree, path[length - 1], rng, null);
+			for (int j = 0; j < length; ++j)
+				tree.removeVirtualLoss(path[j], simulatedScore, VIRTUAL_LOSS);
+			if (recorder != null)
+				recorder.record(length - 1);
+
+			// The iterations started by the other threads are not over yet
+			if (budget.isCheckpoint() && isDecided(tree, root, budget.remaining() + threads))
+				budget.stop();
 		}
+		if (recorder != null)
+			recorder.stop();
+	}
 
-		/**
-		 * Compute MonteCarlo formula with the given components
-		 * 
-		 * @param parent   (Node)
-		 * @param child    (Node)
-		 * @param constant (int)
-		 * @return (double) : value of the formula
-		 */
-		private static double applyFormula(Node parent, Node child, int constant) {
-			double p = child.points;
-			double t = child.turns;
-			double sqrt = sqrt(2d * log(parent.turns) / t);
-			return p / t + (constant * sqrt);
+	/**
+	 * Build a MonteCarlo tree
+	 * 
+	 * @param tree            (NodePool)
+	 * @param root            (int)
+	 * @param rng             (SplittableRandom) : random generator of this tree
+	 * @param determinization (Determinization) : deal of the unknown cards at
+	 *                        each iteration, null if the other players may play
+	 *                        any card the mcts player does not hold
+	 * @param solver          (EndgameSolver) : solver of the dealt turns with
+	 *                        few unplayed cards, null if there is none
+	 * @param leaves          (LeafEvaluator) : batch of rollouts simulating each
+	 *                        new node, null to simulate it once on this thread
+	 * @param recorder        (SearchRecorder) : recorder of this tree, null if
+	 *                        there is none
+	 * @param budget          (SearchBudget)
+	 * @param canStopEarly    (boolean) : true iff the search may stop as soon as
+	 *                        its best child cannot be overtaken anymore
+	 */
+	private void computeTree(NodePool tree, int root, SplittableRandom rng, Determinization determinization,
+			EndgameSolver solver, LeafEvaluator leaves, SearchRecorder recorder, SearchBudget budget,
+			boolean canStopEarly) {
+		if (recorder != null)
+			recorder.start();
+		int[] path = new int[MAX_DEPTH];
+		// Cards played by each player in the current iteration
+		long[] played = tree.isRave() ? new long[PlayerId.COUNT] : null;
+		while (budget.tryStart()) {
+			tree.makeRoom(root, 1);
+			if (played != null)
+				Arrays.fill(played, PackedCardSet.EMPTY);
+			long[] hands = determinization == null ? null
+					: determinization.sample(tree.unplayed(root), tree.trick(root), tree.hand(root), rng);
+			int length = 0;
+			int node = root;
+			path[length++] = node;
+			while (!tree.isTerminal(node)) {
+				int pkTrick = tree.trick(node);
+				int mover = PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)).ordinal();
+				long legal = hands == null ? PackedCardSet.ALL_CARDS : PackedTrick.playableCards(pkTrick, hands[mover]);
+				int child = tree.expand(node, legal);
+				boolean isNew = child != NodePool.NONE;
+				if (!isNew)
+					child = hands == null ? tree.bestChild(node, EXPLORATION_FACTOR)
+							: tree.bestAvailableChild(node, legal, EXPLORATION_FACTOR);
+				if (hands != null)
+					hands[mover] = PackedCardSet.remove(hands[mover], tree.card(child));
+				if (played != null)
+					played[mover] = PackedCardSet.add(played[mover], tree.card(child));
+				path[length++] = child;
+				if (isNew)
+					break;
+				node = child;
+			}
+
+			int leaf = path[length - 1];
+			int simulations = 1;
+			if (solver != null && PackedCardSet.size(tree.unplayed(leaf)) <= endgameCards) {
+				propagation(tree, path, length, solver.solve(tree.score(leaf), tree.trick(leaf), hands), played);
+			} else if (leaves != null) {
+				long[] simulatedScores = leaves.evaluate(tree.score(leaf), tree.unplayed(leaf), tree.trick(leaf),
+						tree.hand(leaf), hands, played);
+				for (int i = 0; i < simulatedScores.length; ++i)
+					propagation(tree, path, length, simulatedScores[i], leaves.played(i));
+				simulations = simulatedScores.length;
+			} else if (hands == null) {
+				propagation(tree, path, length, endOfTurnScore(tree, leaf, rng, played), played);
+			} else {
+				propagation(tree, path, length,
+						Rollout.endOfTurnScore(tree.score(leaf), tree.trick(leaf), hands, rng, rolloutPolicy, played),
+						played);
+			}
+			if (recorder != null)
+				recorder.record(length - 1, simulations);
+
+			// Each remaining iteration may add a whole batch of visits
+			if (canStopEarly && budget.isCheckpoint()
+					&& isDecided(tree, root, budget.remaining() * (leaves == null ? 1 : leaves.size())))
+				budget.stop();
 		}
+		if (recorder != null)
+			recorder.stop();
+	}
 
-		/**
-		 * Get the final score of a randomly simulated turn
-		 * 
-		 * @param rng  (SplittableRandom)
-		 * @param mcts (PlayerId)
-		 * @return (Score) : final score of a randomly simulated turn
-		 */
-		private Score endOfTurnScore(SplittableRandom rng, PlayerId mcts) {
-			TurnState simulated = current;
-			long hand = this.hand;
-
-			// Simulate at random until the end of the turn
-			while (!simulated.isTerminal()) {
-				int pkCard = randomCard(simulated, hand, rng, mcts);
-				simulated = simulated.withNewCardPlayedAndTrickCollected(Card.ofPacked(pkCard));
-				hand = PackedCardSet.remove(hand, pkCard);
+	/**
+	 * Check if the best child of the root can still be overtaken in the remaining
+	 * iterations, even if they all give the worst points to the best child and the
+	 * best ones to the others. The visits still being simulated by other threads
+	 * are left out, their iterations being counted in the remaining ones
+	 * 
+	 * @param tree      (NodePool)
+	 * @param root      (int)
+	 * @param remaining (long) : remaining iterations, including the ones started
+	 *                  but not over
+	 * @return (boolean) : true iff the best child cannot change anymore
+	 */
+	private static boolean isDecided(NodePool tree, int root, long remaining) {
+		if (!tree.isExpanded(root))
+			return false;
+		// The statistics are the ones compared by bestChild
+		int best = tree.bestChild(root, EXPLORATION_NULL);
+		double worstBest = (double) tree.selectionPoints(best) / (tree.simulatedTurns(best) + remaining);
+		for (int c = tree.firstChild(root); c != NodePool.NONE; c = tree.nextSibling(c)) {
+			double bestOther = (tree.selectionPoints(c) + (double) MAX_TURN_POINTS * remaining)
+					/ (tree.simulatedTurns(c) + remaining);
+			if (c != best && bestOther >= worstBest)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Update the points and turns of all nodes on path, and the
+	 * all-moves-as-first statistics of their children
+	 * 
+	 * @param tree           (NodePool)
+	 * @param path           (int[]) : nodes from the root to the new node
+	 * @param length         (int) : length of the path
+	 * @param simulatedScore (long) : final packed score of the simulation
+	 * @param played         (long[]) : cards played by each player in the
+	 *                       simulation, null if they are not tracked
+	 */
+	private static void propagation(NodePool tree, int[] path, int length, long simulatedScore, long[] played) {
+		for (int i = 0; i < length; ++i) {
+			tree.update(path[i], simulatedScore);
+			if (played != null)
+				tree.updateAmaf(path[i], played, simulatedScore);
+		}
+	}
+
+	/**
+	 * Get the final packed score of a randomly simulated turn
+	 * 
+	 * @param tree   (NodePool)
+	 * @param node   (int) : node where the simulation starts
+	 * @param rng    (SplittableRandom)
+	 * @param played (long[]) : cards played by each player, to which the
+	 *               simulated cards are added, null if they are not needed
+	 * @return (long) : final packed score of a randomly simulated turn
+	 */
+	private long endOfTurnScore(NodePool tree, int node, SplittableRandom rng, long[] played) {
+		return Rollout.endOfTurnScore(tree.score(node), tree.unplayed(node), tree.trick(node), tree.hand(node), own,
+				rng, rolloutPolicy, played);
+	}
+
+	/* (non-Javadoc)
+	 * @see ch.epfl.javass.jass.Player#trumpToChoose(ch.epfl.javass.jass.CardSet, boolean)
+	 */
+	@Override
+	public Color trumpToChoose(CardSet hand, boolean canPass) {
+		return trumpToChoose(hand, canPass, SearchBudget.NO_DEADLINE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javass3.jass.players.Player#trumpToChoose(javass3.jass.components.CardSet,
+	 * boolean, long)
+	 */
+	@Override
+	public Color trumpToChoose(CardSet hand, boolean canPass, long deadline) {
+		stopPondering();
+		if (trumpDeals == 0)
+			return heuristicTrump(hand, canPass);
+
+		long[] points;
+		if (workers == null) {
+			points = simulatedTrumpPoints(hand.packed(), canPass, rng, new SearchBudget(trumpDeals, deadline));
+		} else {
+			points = new long[DEALS + 1];
+			List<ForkJoinTask<long[]>> tasks = new ArrayList<>(threads);
+			for (int i = 0; i < threads; ++i) {
+				// Splits are done here, in order, so that the choice is reproducible
+				SplittableRandom taskRng = rng.split();
+				SearchBudget budget = new SearchBudget(trumpDeals / threads + (i < trumpDeals % threads ? 1 : 0),
+						deadline);
+				tasks.add(workers.submit(() -> simulatedTrumpPoints(hand.packed(), canPass, taskRng, budget)));
+			}
+			for (ForkJoinTask<long[]> task : tasks) {
+				long[] taskPoints = task.join();
+				for (int i = 0; i < points.length; ++i)
+					points[i] += taskPoints[i];
 			}
+		}
+		if (points[DEALS] == 0)
+			return heuristicTrump(hand, canPass);
 
-			return simulated.score();
+		// Every option has been simulated on the same deals
+		Color bestColor = null;
+		long bestPoints = canPass ? points[PASS] : -1;
+		for (Color c : Color.ALL) {
+			if (bestPoints < points[c.ordinal()]) {
+				bestColor = c;
+				bestPoints = points[c.ordinal()];
+			}
 		}
+		return bestColor;
+	}
 
-		/**
-		 * Get a random card from possible playable cards
-		 * 
-		 * @param simulated (TurnState)
-		 * @param hand      (long)
-		 * @param rng       (SplittableRandom)
-		 * @param mcts      (PlayerId)
-		 * @return (int) : random packed card
-		 */
-		private int randomCard(TurnState simulated, long hand, SplittableRandom rng, PlayerId mcts) {
-			long playable = potentialCard(simulated, mcts, hand);
-			int random = rng.nextInt(PackedCardSet.size(playable));
-			return PackedCardSet.get(playable, random);
+	/**
+	 * Deal the unknown cards at random and play each deal out with every trump,
+	 * and with the trump of the partner after a pass if it is allowed
+	 * 
+	 * @param pkHand  (long)
+	 * @param canPass (boolean)
+	 * @param rng     (SplittableRandom)
+	 * @param budget  (SearchBudget) : number of deals and deadline
+	 * @return (long[]) : points of the team for each trump and the pass, followed
+	 *         by the number of deals
+	 */
+	private long[] simulatedTrumpPoints(long pkHand, boolean canPass, SplittableRandom rng, SearchBudget budget) {
+		// The player choosing first leads the first trick, even if he passes
+		PlayerId partner = PlayerId.ALL.get((own.ordinal() + 2) % PlayerId.COUNT);
+		PlayerId leader = canPass ? own : partner;
+		Determinization determinization = new Determinization(own, new long[PlayerId.COUNT]);
+		long[] hands = new long[PlayerId.COUNT];
+		long[] points = new long[DEALS + 1];
+		while (budget.tryStart()) {
+			long[] deal = determinization.sample(PackedCardSet.ALL_CARDS,
+					PackedTrick.firstEmpty(Color.SPADE, leader), pkHand, rng);
+			for (Color c : Color.ALL) {
+				System.arraycopy(deal, 0, hands, 0, PlayerId.COUNT);
+				points[c.ordinal()] += simulatedTurnPoints(c, leader, hands, rng);
+			}
+			if (canPass) {
+				Color trump = heuristicTrump(CardSet.ofPacked(deal[partner.ordinal()]), false);
+				System.arraycopy(deal, 0, hands, 0, PlayerId.COUNT);
+				points[PASS] += simulatedTurnPoints(trump, leader, hands, rng);
+			}
+			points[DEALS]++;
 		}
+		return points;
+	}
+
+	/**
+	 * Play a deal out at random with the given trump
+	 * 
+	 * @param trump  (Color)
+	 * @param leader (PlayerId) : player leading the first trick
+	 * @param hands  (long[]) : packed hand of each player, emptied by the play
+	 * @param rng    (SplittableRandom)
+	 * @return (int) : points of the team of the player
+	 */
+	private int simulatedTurnPoints(Color trump, PlayerId leader, long[] hands, SplittableRandom rng) {
+		long pkScore = Rollout.endOfTurnScore(PackedScore.INITIAL, PackedTrick.firstEmpty(trump, leader), hands, rng,
+				rolloutPolicy, null);
+		return PackedScore.turnPoints(pkScore, own.team());
+	}
+
+	/**
+	 * Choose the trump whose cards of the hand are the strongest, or pass if none
+	 * is strong enough
+	 * 
+	 * @param hand    (CardSet)
+	 * @param canPass (boolean)
+	 * @return (Color) : trump, null to pass
+	 */
+	private static Color heuristicTrump(CardSet hand, boolean canPass) {
+		Color bestColor = null;
+        int maxPoints = 0;
+        for (Color c : Color.ALL) {
+            CardSet colorCard = hand.subsetOfColor(c);
+            int sum = 0;
+            for (int i = 0; i < colorCard.size();++i)
+                sum += colorCard.get(i).rank().trumpOrdinal();
+            if (maxPoints < sum) {
+                bestColor = c;
+                maxPoints = sum;
+            }
+        }           
+        return (canPass && maxPoints < MIN_POINTS_TRUMP) ? null : bestColor;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package javass3.jass.players;
+
+import javass3.jass.components.Card.Color;
+import javass3.jass.packed.PackedCard;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedLongTrick;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Order in which the children of a node are created : the cards are ranked by
+ * a cheap prior on the current trick only, so that the first iterations of a
+ * node go to the plausible moves, the others being tried later. The winner of
+ * the trick is read from PackedLongTrick, as in HeuristicRolloutPolicy
+ */
+final class MoveOrdering {
+
+	// Prior given on top of its points to a card winning the trick
+	private static final int WIN_BONUS = 100;
+	// Prior lost by a card winning the trick by trumping it
+	private static final int RUFF_COST = 10;
+
+	private MoveOrdering() {
+	}
+
+	/**
+	 * Get the card with the best prior among the given ones : a card winning the
+	 * trick from the opponents, the more so as the trick is worth points, then
+	 * the cards giving points to the partner when he is winning it, and last the
+	 * cheapest discards. The points of the card rank the leads
+	 * 
+	 * @param pkTrick (int) : current trick, not full
+	 * @param cards   (long) : packed cardset, not empty
+	 * @return (int) : packed card with the best prior, the lowest one for equal
+	 *         priors
+	 */
+	static int first(int pkTrick, long cards) {
+		Color trump = PackedTrick.trump(pkTrick);
+		long pkLongTrick = PackedLongTrick.of(pkTrick);
+		int size = PackedLongTrick.size(pkLongTrick);
+		long beaters = size == 0 ? PackedCardSet.EMPTY : PackedLongTrick.beaters(pkLongTrick);
+		boolean isPartnerWinning = PackedLongTrick.isPartnerWinning(pkLongTrick);
+		boolean isTrumpTrick = size > 0 && PackedTrick.baseColor(pkTrick) == trump;
+
+		int best = PackedCard.INVALID;
+		int bestPrior = Integer.MIN_VALUE;
+		for (long remaining = cards; remaining != 0L; remaining &= remaining - 1) {
+			int pkCard = Long.numberOfTrailingZeros(remaining);
+			int points = PackedCard.points(trump, pkCard);
+			int prior;
+			if (size == 0 || isPartnerWinning)
+				prior = points;
+			else if (PackedCardSet.contains(beaters, pkCard))
+				prior = WIN_BONUS + PackedLongTrick.points(pkLongTrick) + points
+						- (!isTrumpTrick && PackedCard.color(pkCard) == trump ? RUFF_COST : 0);
+			else
+				prior = -points;
+			if (bestPrior < prior) {
+				bestPrior = prior;
+				best = pkCard;
+			}
+		}
+		return best;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,922 @@
+package javass3.jass.players;
+
+import static java.lang.Math.log;
+import static java.lang.Math.pow;
+import static java.lang.Math.sqrt;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javass3.jass.ids.PlayerId;
+import javass3.jass.ids.TeamId;
+import javass3.jass.packed.PackedCard;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedLongTrick;
+import javass3.jass.packed.PackedScore;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Monte Carlo tree stored as a struct of arrays : a node is an index in the
+ * arrays, and its children are linked by first-child / next-sibling indices.
+ * The arrays are only allocated when the pool grows, so that a pool reused
+ * across searches does not allocate anything on the selection, expansion and
+ * propagation paths. The pool may be given a maximum number of nodes, the
+ * least visited nodes being pruned when it is reached. The children of a node
+ * are created in the order of MoveOrdering, and their number may grow with the
+ * visits of the node (progressive widening)
+ */
+final class NodePool {
+
+	static final int NONE = -1;
+	static final int UNBOUNDED = Integer.MAX_VALUE;
+	// Memory used by a node, ie one element of each array
+	static final int BYTES_PER_NODE = 5 * Long.BYTES + 11 * Integer.BYTES + 2 * Byte.BYTES;
+
+	private static final int MIN_CAPACITY = 1024;
+	// Visits below which the terms of the MonteCarlo formula are read in tables
+	private static final int TABLE_SIZE = 1024;
+	// 1 / sqrt(n) and sqrt(2 ln(n)) for n visits
+	private static final double[] INV_SQRT = invSqrtTable();
+	private static final double[] SQRT_LOG = sqrtLogTable();
+
+	private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	// Packed turn state of the nodes
+	private long[] score = new long[0];
+	private long[] unplayed = new long[0];
+	private int[] trick = new int[0];
+	// Hand of the mcts player and cards whose child has not been created yet
+	private long[] hand = new long[0];
+	private long[] untried = new long[0];
+	// Statistics, for the team of the player who played the card of the node
+	private int[] turns = new int[0];
+	private int[] points = new int[0];
+	// Visits of a node shared with other threads that are not simulated yet, ie
+	// its pending virtual loss, counted in turns
+	private int[] pending = new int[0];
+	// Number of visits of the parent where the node could be played, for
+	// information set searches
+	private int[] available = new int[0];
+	// All-moves-as-first statistics : visits and points of the simulations where
+	// the card of the node was played later by the same player
+	private int[] amafTurns = new int[0];
+	private int[] amafPoints = new int[0];
+	private byte[] team = new byte[0];
+	private byte[] card = new byte[0];
+	// Links between the nodes
+	private int[] firstChild = new int[0];
+	private int[] nextSibling = new int[0];
+	// Zobrist key of the nodes and their entry in the transposition table
+	private long[] key = new long[0];
+	private int[] entry = new int[0];
+	// Scratch space used to compact the pool
+	private int[] remap = new int[0];
+
+	private final AtomicInteger size = new AtomicInteger();
+	private PlayerId mcts;
+	private TranspositionTable table;
+	private boolean informationSets;
+	private int raveEquivalence;
+	private double wideningCoefficient;
+	private double wideningExponent;
+	private int maxNodes = UNBOUNDED;
+
+	/**
+	 * Empty the pool for a new search
+	 * 
+	 * @param mcts            (PlayerId) : player doing the search
+	 * @param table           (TranspositionTable) : table shared by the nodes
+	 *                        with the same state, null if there is none
+	 * @param informationSets (boolean) : true iff the other players may play any
+	 *                        card the mcts player does not hold, their legal
+	 *                        cards being given by a determinization at each
+	 *                        iteration
+	 */
+	void reset(PlayerId mcts, TranspositionTable table, boolean informationSets) {
+		size.set(0);
+		this.mcts = mcts;
+		this.table = table;
+		this.informationSets = informationSets;
+	}
+
+	/**
+	 * Blend the statistics of the children with their all-moves-as-first ones
+	 * during the selection, the weight of the latter decreasing as the children
+	 * are visited. The final choice only uses the statistics of the children
+	 * 
+	 * @param equivalence (int) : visits of a child for which both statistics have
+	 *                    the same weight, 0 to select with the statistics of the
+	 *                    children only
+	 */
+	void setRave(int equivalence) {
+		this.raveEquivalence = equivalence;
+	}
+
+	/**
+	 * Check if the all-moves-as-first statistics are used by the selection
+	 * 
+	 * @return (boolean) : true iff they must be updated
+	 */
+	boolean isRave() {
+		return raveEquivalence > 0;
+	}
+
+	/**
+	 * Limit the number of children of a node to coefficient * n^exponent for n
+	 * visits of the node, at least one, so that its first visits go to the
+	 * children created first. A node still gets a new child when none of its
+	 * children is legal
+	 * 
+	 * @param coefficient (double) : 0 to create the children without limit
+	 * @param exponent    (double) : between 0 and 1
+	 */
+	void setWidening(double coefficient, double exponent) {
+		this.wideningCoefficient = coefficient;
+		this.wideningExponent = exponent;
+	}
+
+	/**
+	 * Bound the number of nodes of the pool. A larger pool is emptied and shrunk
+	 * 
+	 * @param maxNodes (int) : maximum number of nodes, UNBOUNDED if there is none
+	 */
+	void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+		if (score.length > maxNodes) {
+			size.set(0);
+			resize(maxNodes);
+		}
+	}
+
+	/**
+	 * Make sure the given number of nodes can be added to the tree of the given
+	 * root : the pool grows up to its maximum number of nodes, and when it would
+	 * exceed it, only about half of them is kept, the most visited ones
+	 * 
+	 * @param root  (int) : root of the tree, the first node of the pool
+	 * @param nodes (int) : number of nodes to add
+	 */
+	void makeRoom(int root, int nodes) {
+		int n = size.get();
+		if (n + nodes > maxNodes && n > maxNodes / 2)
+			prune(root, maxNodes / 2);
+		ensureCapacity((int) Math.min((long) size.get() + nodes, maxNodes));
+	}
+
+	/**
+	 * Make sure the pool can hold capacity nodes. A pool shared by several threads
+	 * must be given its capacity before the search, as it cannot grow during it
+	 * 
+	 * @param capacity (int) : number of nodes, at most the maximum of the pool
+	 */
+	void ensureCapacity(int capacity) {
+		if (capacity > score.length)
+			resize(Math.max(capacity, Math.min(Math.max(2 * score.length, MIN_CAPACITY), maxNodes)));
+	}
+
+	/**
+	 * Reallocate the arrays with the given capacity, keeping the nodes that fit
+	 * 
+	 * @param capacity (int) : number of nodes
+	 */
+	private void resize(int capacity) {
+		score = Arrays.copyOf(score, capacity);
+		unplayed = Arrays.copyOf(unplayed, capacity);
+		trick = Arrays.copyOf(trick, capacity);
+		hand = Arrays.copyOf(hand, capacity);
+		untried = Arrays.copyOf(untried, capacity);
+		turns = Arrays.copyOf(turns, capacity);
+		points = Arrays.copyOf(points, capacity);
+		pending = Arrays.copyOf(pending, capacity);
+		available = Arrays.copyOf(available, capacity);
+		amafTurns = Arrays.copyOf(amafTurns, capacity);
+		amafPoints = Arrays.copyOf(amafPoints, capacity);
+		team = Arrays.copyOf(team, capacity);
+		card = Arrays.copyOf(card, capacity);
+		firstChild = Arrays.copyOf(firstChild, capacity);
+		nextSibling = Arrays.copyOf(nextSibling, capacity);
+		key = Arrays.copyOf(key, capacity);
+		entry = Arrays.copyOf(entry, capacity);
+		remap = new int[capacity];
+	}
+
+	/**
+	 * Create the root of the tree, whose statistics are counted for the team
+	 * opposed to the mcts player
+	 * 
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long)
+	 * @return (int) : the root node
+	 */
+	int root(long pkScore, long pkUnplayed, int pkTrick, long pkHand) {
+		ensureCapacity(size.get() + 1);
+		int node = size.getAndIncrement();
+		init(node, pkScore, pkUnplayed, pkTrick, pkHand, mcts.team().other(), PackedCard.INVALID);
+		return node;
+	}
+
+	/**
+	 * Create (if possible) the next child of the given node, following the order
+	 * of MoveOrdering. The pool grows if needed, until it is large enough for the
+	 * searches it is used for
+	 * 
+	 * @param node (int)
+	 * @return (int) : the new child, NONE if all the children already exist
+	 */
+	int expand(int node) {
+		return expand(node, PackedCardSet.ALL_CARDS);
+	}
+
+	/**
+	 * Create (if possible) the next child of the given node whose card is one of
+	 * the given legal cards. In an information set search, the legal children
+	 * that already exist are counted as available for this visit too
+	 * 
+	 * @param node  (int)
+	 * @param legal (long) : packed cardset of the cards that may be played
+	 * @return (int) : the new child, NONE if all the legal children already exist
+	 */
+	int expand(int node, long legal) {
+		long cards = PackedCardSet.intersection(untried[node], legal);
+		if (PackedCardSet.isEmpty(cards) || isWidened(node, legal))
+			return NONE;
+		int pkCard = MoveOrdering.first(trick[node], cards);
+		untried[node] = PackedCardSet.remove(untried[node], pkCard);
+		if (informationSets) {
+			for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+				if (PackedCardSet.contains(legal, card[c]))
+					available[c]++;
+			}
+		}
+		ensureCapacity(size.get() + 1);
+		int child = size.getAndIncrement();
+		initChild(child, node, pkCard);
+		available[child] = 1;
+		nextSibling[child] = firstChild[node];
+		firstChild[node] = child;
+		return child;
+	}
+
+	/**
+	 * Create (if possible) the next child of a node shared with other threads :
+	 * its card is claimed with a compare-and-set, so that two threads never create
+	 * the same child, and it is published once fully initialized
+	 * 
+	 * @param node        (int)
+	 * @param virtualLoss (int) : visits given to the new child before publishing it
+	 * @return (int) : the new child, NONE if all the children are already claimed
+	 *         or if the pool is full
+	 */
+	int expandConcurrently(int node, int virtualLoss) {
+		long cards = (long) LONGS.getVolatile(untried, node);
+		while (!PackedCardSet.isEmpty(cards) && !isWidened(node, PackedCardSet.ALL_CARDS)) {
+			int pkCard = MoveOrdering.first(trick[node], cards);
+			if (LONGS.compareAndSet(untried, node, cards, PackedCardSet.remove(cards, pkCard))) {
+				int child = reserve();
+				// The pool is full : the card stays untried, the node is simulated
+				if (child == NONE) {
+					LONGS.getAndBitwiseOr(untried, node, PackedCardSet.singleton(pkCard));
+					return NONE;
+				}
+				initChild(child, node, pkCard);
+				turns[child] = virtualLoss;
+				pending[child] = virtualLoss;
+				if (isShared(child))
+					table.add(entry[child], virtualLoss, 0);
+				int first;
+				do {
+					first = (int) INTS.getVolatile(firstChild, node);
+					nextSibling[child] = first;
+				} while (!INTS.compareAndSet(firstChild, node, first, child));
+				return child;
+			}
+			cards = (long) LONGS.getVolatile(untried, node);
+		}
+		return NONE;
+	}
+
+	/**
+	 * Check if the node has as many children as its visits allow, one of them
+	 * being legal. The visits lost virtually by other threads are not counted
+	 * 
+	 * @param node  (int)
+	 * @param legal (long) : packed cardset of the cards that may be played
+	 * @return (boolean) : true iff no child may be created for now
+	 */
+	private boolean isWidened(int node, long legal) {
+		if (wideningCoefficient == 0d)
+			return false;
+		int visits = Math.max(0, (int) INTS.getVolatile(turns, node) - (int) INTS.getVolatile(pending, node));
+		int allowed = Math.max(1, (int) (wideningCoefficient * pow(visits, wideningExponent)));
+		int children = 0;
+		boolean hasLegalChild = false;
+		for (int c = (int) INTS.getAcquire(firstChild, node); c != NONE; c = nextSibling[c]) {
+			++children;
+			hasLegalChild |= PackedCardSet.contains(legal, card[c]);
+		}
+		return children >= allowed && hasLegalChild;
+	}
+
+	/**
+	 * Get the child of the given node with the best value of the MonteCarlo
+	 * formula. The statistics of a child are the ones of its state in the
+	 * transposition table, if it is still there. The terms depending on the parent
+	 * only are computed once
+	 * 
+	 * @param node     (int)
+	 * @param constant (int) : exploration constant
+	 * @return (int) : best child, NONE if the node has no (published) child
+	 */
+	int bestChild(int node, int constant) {
+		double exploration = constant * sqrtLog(turns[node]);
+		double bestChildValue = 0d;
+		int best = NONE;
+		for (int c = (int) INTS.getAcquire(firstChild, node); c != NONE; c = nextSibling[c]) {
+			double currentChildValue = value(c, exploration, constant);
+			if (bestChildValue < currentChildValue || best == NONE) {
+				bestChildValue = currentChildValue;
+				best = c;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Get the child of the given node with the best value of the MonteCarlo
+	 * formula among the ones whose card is legal, the visits of the parent being
+	 * replaced by the number of times each child could be played
+	 * 
+	 * @param node     (int)
+	 * @param legal    (long) : packed cardset of the cards that may be played
+	 * @param constant (int) : exploration constant
+	 * @return (int) : best child, NONE if no legal child exists
+	 */
+	int bestAvailableChild(int node, long legal, int constant) {
+		double bestChildValue = 0d;
+		int best = NONE;
+		for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+			if (!PackedCardSet.contains(legal, card[c]))
+				continue;
+			available[c]++;
+			double currentChildValue = value(c, constant * sqrtLog(available[c]), constant);
+			if (bestChildValue < currentChildValue || best == NONE) {
+				bestChildValue = currentChildValue;
+				best = c;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Compute the value of the MonteCarlo formula for the given child, with its
+	 * statistics in the transposition table if it is still there. While exploring,
+	 * its mean points are blended with its all-moves-as-first ones, with a weight
+	 * sqrt(k / (3 n + k)) for n visits and an equivalence k
+	 * 
+	 * @param child       (int)
+	 * @param exploration (double) : constant * sqrt(2 ln(N)) for N visits of the
+	 *                    parent
+	 * @param constant    (int)
+	 * @return (double) : value of the child
+	 */
+	private double value(int child, double exploration, int constant) {
+		int childTurns = turns[child];
+		int childPoints = points[child];
+		if (hasSharedStatistics(child)) {
+			childTurns = table.turns(entry[child]);
+			childPoints = table.points(entry[child]);
+		}
+		if (raveEquivalence > 0 && constant != 0 && amafTurns[child] > 0) {
+			double beta = sqrt((double) raveEquivalence / (3d * childTurns + raveEquivalence));
+			double mean = (1d - beta) * childPoints / childTurns + beta * amafPoints[child] / amafTurns[child];
+			return mean + exploration * invSqrt(childTurns);
+		}
+		return applyFormula(exploration, childPoints, childTurns);
+	}
+
+	/**
+	 * Compute MonteCarlo formula with the given components
+	 * 
+	 * @param exploration (double) : constant * sqrt(2 ln(N)) for N visits of the
+	 *                    parent
+	 * @param childPoints (int)
+	 * @param childTurns  (int)
+	 * @return (double) : value of the formula
+	 */
+	private static double applyFormula(double exploration, int childPoints, int childTurns) {
+		return (double) childPoints / childTurns + exploration * invSqrt(childTurns);
+	}
+
+	/**
+	 * Get 1 / sqrt(n), from the table for the small visit counts
+	 * 
+	 * @param n (int) : visits
+	 * @return (double) : inverse of the square root
+	 */
+	private static double invSqrt(int n) {
+		return n < TABLE_SIZE ? INV_SQRT[n] : 1d / sqrt(n);
+	}
+
+	/**
+	 * Get sqrt(2 ln(n)), from the table for the small visit counts
+	 * 
+	 * @param n (int) : visits
+	 * @return (double) : exploration term of the parent, without its constant
+	 */
+	private static double sqrtLog(int n) {
+		return n < TABLE_SIZE ? SQRT_LOG[n] : sqrt(2d * log(n));
+	}
+
+	/**
+	 * Create the table of 1 / sqrt(n)
+	 * 
+	 * @return (double[]) : inverse square roots, indexed by n
+	 */
+	private static double[] invSqrtTable() {
+		double[] tab = new double[TABLE_SIZE];
+		for (int n = 0; n < TABLE_SIZE; ++n)
+			tab[n] = 1d / sqrt(n);
+		return tab;
+	}
+
+	/**
+	 * Create the table of sqrt(2 ln(n))
+	 * 
+	 * @return (double[]) : exploration terms, indexed by n
+	 */
+	private static double[] sqrtLogTable() {
+		double[] tab = new double[TABLE_SIZE];
+		for (int n = 0; n < TABLE_SIZE; ++n)
+			tab[n] = sqrt(2d * log(n));
+		return tab;
+	}
+
+	/**
+	 * Add the points of the given simulated score to the node, for its team
+	 * 
+	 * @param node    (int)
+	 * @param pkScore (long) : simulated score
+	 */
+	void update(int node, long pkScore) {
+		int p = PackedScore.turnPoints(pkScore, TeamId.ALL.get(team[node]));
+		points[node] += p;
+		turns[node]++;
+		if (isShared(node))
+			table.add(entry[node], 1, p);
+	}
+
+	/**
+	 * Add the points of the given simulated score to the all-moves-as-first
+	 * statistics of the children of the node whose card has been played in the
+	 * simulation by the player of the node
+	 * 
+	 * @param node    (int)
+	 * @param played  (long[]) : cards played by each player in the simulation,
+	 *                indexed by ordinal
+	 * @param pkScore (long) : simulated score
+	 */
+	void updateAmaf(int node, long[] played, long pkScore) {
+		int pkTrick = trick[node];
+		if (pkTrick == PackedTrick.INVALID)
+			return;
+		PlayerId mover = PackedTrick.player(pkTrick, PackedTrick.size(pkTrick));
+		long cards = played[mover.ordinal()];
+		int p = PackedScore.turnPoints(pkScore, mover.team());
+		for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+			if (PackedCardSet.contains(cards, card[c])) {
+				amafTurns[c]++;
+				amafPoints[c] += p;
+			}
+		}
+	}
+
+	/**
+	 * Count visits of a node shared with other threads that have not been
+	 * simulated yet, ie lost ones
+	 * 
+	 * @param node        (int)
+	 * @param virtualLoss (int)
+	 */
+	void addVirtualLoss(int node, int virtualLoss) {
+		INTS.getAndAdd(pending, node, virtualLoss);
+		INTS.getAndAdd(turns, node, virtualLoss);
+		if (isShared(node))
+			table.add(entry[node], virtualLoss, 0);
+	}
+
+	/**
+	 * Replace the virtual loss of a node shared with other threads by the points
+	 * of the given simulated score
+	 * 
+	 * @param node        (int)
+	 * @param pkScore     (long) : simulated score
+	 * @param virtualLoss (int)
+	 */
+	void removeVirtualLoss(int node, long pkScore, int virtualLoss) {
+		int p = PackedScore.turnPoints(pkScore, TeamId.ALL.get(team[node]));
+		INTS.getAndAdd(points, node, p);
+		INTS.getAndAdd(turns, node, 1 - virtualLoss);
+		INTS.getAndAdd(pending, node, -virtualLoss);
+		if (isShared(node))
+			table.add(entry[node], 1 - virtualLoss, p);
+	}
+
+	/**
+	 * Check if the statistics of the node are shared in the transposition table,
+	 * ie if its entry still holds its state
+	 * 
+	 * @param node (int)
+	 * @return (boolean) : true iff the node has an entry in the table
+	 */
+	private boolean isShared(int node) {
+		return table != null && table.holds(entry[node], key[node]);
+	}
+
+	/**
+	 * Check if the selection uses the statistics of the node in the transposition
+	 * table rather than its own ones
+	 * 
+	 * @param node (int)
+	 * @return (boolean) : true iff the node is shared with all its visits
+	 */
+	private boolean hasSharedStatistics(int node) {
+		// Some visits of the node may be missing if its entry has been claimed again
+		return isShared(node) && table.turns(entry[node]) >= turns[node];
+	}
+
+	/**
+	 * Check if the node is terminal, ie its turn is over
+	 * 
+	 * @param node (int)
+	 * @return (boolean) : true iff the node is terminal
+	 */
+	boolean isTerminal(int node) {
+		return trick[node] == PackedTrick.INVALID;
+	}
+
+	/**
+	 * Check if all the children of the node have been created
+	 * 
+	 * @param node (int)
+	 * @return (boolean) : true iff the node is fully expanded
+	 */
+	boolean isExpanded(int node) {
+		return PackedCardSet.isEmpty((long) LONGS.getVolatile(untried, node));
+	}
+
+	/**
+	 * Get the first child of the node, the next ones are given by nextSibling
+	 * 
+	 * @param node (int)
+	 * @return (int) : first child, NONE if there is none
+	 */
+	int firstChild(int node) {
+		return (int) INTS.getAcquire(firstChild, node);
+	}
+
+	/**
+	 * Get the next sibling of the node
+	 * 
+	 * @param node (int)
+	 * @return (int) : next sibling, NONE if there is none
+	 */
+	int nextSibling(int node) {
+		return nextSibling[node];
+	}
+
+	/**
+	 * Get the packed card played to reach the node
+	 * 
+	 * @param node (int)
+	 * @return (int) : packed card
+	 */
+	int card(int node) {
+		return card[node];
+	}
+
+	/**
+	 * Get the number of visits of the node
+	 * 
+	 * @param node (int)
+	 * @return (int) : turns
+	 */
+	int turns(int node) {
+		return turns[node];
+	}
+
+	/**
+	 * Get the total points of the node
+	 * 
+	 * @param node (int)
+	 * @return (int) : points
+	 */
+	int points(int node) {
+		return points[node];
+	}
+
+	/**
+	 * Get the number of visits of the node used by the selection, ie the ones of
+	 * its state in the transposition table if it is still there
+	 * 
+	 * @param node (int)
+	 * @return (int) : turns seen by bestChild
+	 */
+	int selectionTurns(int node) {
+		return hasSharedStatistics(node) ? table.turns(entry[node]) : turns[node];
+	}
+
+	/**
+	 * Get the total points of the node used by the selection, ie the ones of its
+	 * state in the transposition table if it is still there
+	 * 
+	 * @param node (int)
+	 * @return (int) : points seen by bestChild
+	 */
+	int selectionPoints(int node) {
+		return hasSharedStatistics(node) ? table.points(entry[node]) : points[node];
+	}
+
+	/**
+	 * Get the number of visits of the node used by the selection whose
+	 * simulation is over, ie without the virtual loss of the threads still
+	 * simulating it
+	 * 
+	 * @param node (int)
+	 * @return (int) : simulated turns
+	 */
+	int simulatedTurns(int node) {
+		return Math.max(0, selectionTurns(node) - (int) INTS.getVolatile(pending, node));
+	}
+
+	/**
+	 * Get the packed score of the node
+	 * 
+	 * @param node (int)
+	 * @return (long) : packed score
+	 */
+	long score(int node) {
+		return score[node];
+	}
+
+	/**
+	 * Get the packed unplayed cards of the node
+	 * 
+	 * @param node (int)
+	 * @return (long) : packed cardset
+	 */
+	long unplayed(int node) {
+		return unplayed[node];
+	}
+
+	/**
+	 * Get the packed trick of the node
+	 * 
+	 * @param node (int)
+	 * @return (int) : packed trick
+	 */
+	int trick(int node) {
+		return trick[node];
+	}
+
+	/**
+	 * Get the hand of the mcts player at the node
+	 * 
+	 * @param node (int)
+	 * @return (long) : packed cardset
+	 */
+	long hand(int node) {
+		return hand[node];
+	}
+
+	/**
+	 * Find the descendant of the given node which has the given packed state,
+	 * following only the cards that have been played between both states
+	 * 
+	 * @param node       (int)
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @return (int) : the descendant, NONE if it is not in the tree
+	 */
+	int find(int node, long pkScore, long pkUnplayed, int pkTrick, long pkHand) {
+		if (score[node] == pkScore && unplayed[node] == pkUnplayed && trick[node] == pkTrick && hand[node] == pkHand)
+			return node;
+
+		long played = PackedCardSet.difference(unplayed[node], pkUnplayed);
+		long unknown = PackedCardSet.difference(pkUnplayed, unplayed[node]);
+		if (PackedCardSet.isEmpty(played) || !PackedCardSet.isEmpty(unknown))
+			return NONE;
+		for (int c = firstChild[node]; c != NONE; c = nextSibling[c]) {
+			if (PackedCardSet.contains(played, card[c])) {
+				int found = find(c, pkScore, pkUnplayed, pkTrick, pkHand);
+				if (found != NONE)
+					return found;
+			}
+		}
+		return NONE;
+	}
+
+	/**
+	 * Keep only the subtree of the given node, with its statistics, and move it at
+	 * the beginning of the pool. As a child is always created after its parent,
+	 * the nodes can be moved in place, in the order of their indices
+	 * 
+	 * @param node (int) : the new root
+	 * @return (int) : index of the new root
+	 */
+	int compact(int node) {
+		return compact(node, 0);
+	}
+
+	/**
+	 * Keep at most the given number of nodes of the tree, the most visited ones,
+	 * and the root. The cards of the pruned children become untried again, so
+	 * that the freed nodes are reused when the search comes back to them
+	 * 
+	 * @param root (int) : root of the tree, the first node of the pool
+	 * @param keep (int) : number of nodes to keep
+	 * @return (int) : index of the root
+	 */
+	int prune(int root, int keep) {
+		int n = size.get() - root;
+		if (n <= keep)
+			return compact(root, 0);
+		// Visits of the keep-th most visited node, the ties being pruned
+		System.arraycopy(turns, root, remap, 0, n);
+		Arrays.sort(remap, 0, n);
+		return compact(root, remap[n - keep - 1] + 1);
+	}
+
+	/**
+	 * Keep only the nodes of the subtree of the given node visited at least the
+	 * given number of times, and move them at the beginning of the pool. A child
+	 * never has more visits than its parent, so that the kept nodes form a tree
+	 * 
+	 * @param node     (int) : the new root, always kept
+	 * @param minTurns (int) : visits of the nodes to keep
+	 * @return (int) : index of the new root
+	 */
+	private int compact(int node, int minTurns) {
+		int n = size.get();
+		Arrays.fill(remap, node, n, NONE);
+
+		// Give the new indices, the kept children being marked and linked when
+		// their parent is met
+		int next = 0;
+		remap[node] = next;
+		for (int i = node; i < n; ++i) {
+			if (remap[i] == NONE)
+				continue;
+			remap[i] = next++;
+			int last = NONE;
+			for (int c = firstChild[i]; c != NONE; c = nextSibling[c]) {
+				if (turns[c] < minTurns) {
+					untried[i] = PackedCardSet.add(untried[i], card[c]);
+					continue;
+				}
+				remap[c] = 0;
+				if (last == NONE)
+					firstChild[i] = c;
+				else
+					nextSibling[last] = c;
+				last = c;
+			}
+			if (last == NONE)
+				firstChild[i] = NONE;
+			else
+				nextSibling[last] = NONE;
+		}
+
+		// Move the nodes, towards lower indices only
+		for (int i = node; i < n; ++i) {
+			int j = remap[i];
+			if (j == NONE)
+				continue;
+			score[j] = score[i];
+			unplayed[j] = unplayed[i];
+			trick[j] = trick[i];
+			hand[j] = hand[i];
+			untried[j] = untried[i];
+			turns[j] = turns[i];
+			points[j] = points[i];
+			pending[j] = pending[i];
+			available[j] = available[i];
+			amafTurns[j] = amafTurns[i];
+			amafPoints[j] = amafPoints[i];
+			team[j] = team[i];
+			card[j] = card[i];
+			firstChild[j] = firstChild[i] == NONE ? NONE : remap[firstChild[i]];
+			nextSibling[j] = i == node || nextSibling[i] == NONE ? NONE : remap[nextSibling[i]];
+			key[j] = key[i];
+			entry[j] = entry[i];
+		}
+		size.set(next);
+		return 0;
+	}
+
+	/**
+	 * Get the number of nodes in the pool
+	 * 
+	 * @return (int) : size of the pool
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * Reserve a node of a pool shared with other threads, which cannot grow
+	 * 
+	 * @return (int) : the reserved node, NONE if the pool is full
+	 */
+	private int reserve() {
+		int n;
+		do {
+			n = size.get();
+			if (n >= score.length)
+				return NONE;
+		} while (!size.compareAndSet(n, n + 1));
+		return n;
+	}
+
+	/**
+	 * Initialize the given node as the child of the given node reached by playing
+	 * the given card
+	 * 
+	 * @param child  (int)
+	 * @param node   (int)
+	 * @param pkCard (int)
+	 */
+	private void initChild(int child, int node, int pkCard) {
+		long pkLongTrick = PackedLongTrick.of(trick[node]);
+		TeamId mover = PackedLongTrick.nextPlayer(pkLongTrick).team();
+		long pkScore = score[node];
+
+		pkLongTrick = PackedLongTrick.withAddedCard(pkLongTrick, pkCard);
+		if (PackedLongTrick.isFull(pkLongTrick)) {
+			pkScore = PackedScore.withAdditionalTrick(pkScore, PackedLongTrick.winningPlayer(pkLongTrick).team(),
+					PackedLongTrick.points(pkLongTrick));
+			pkLongTrick = PackedLongTrick.nextEmpty(pkLongTrick);
+		}
+
+		init(child, pkScore, PackedCardSet.remove(unplayed[node], pkCard), PackedLongTrick.packedTrick(pkLongTrick),
+				PackedCardSet.remove(hand[node], pkCard), mover, pkCard);
+	}
+
+	/**
+	 * Initialize all the components of a node
+	 * 
+	 * @param node       (int)
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long)
+	 * @param t          (TeamId) : team of the player who played pkCard
+	 * @param pkCard     (int) : card played to reach the node
+	 */
+	private void init(int node, long pkScore, long pkUnplayed, int pkTrick, long pkHand, TeamId t, int pkCard) {
+		score[node] = pkScore;
+		unplayed[node] = pkUnplayed;
+		trick[node] = pkTrick;
+		hand[node] = pkHand;
+		untried[node] = potentialCards(pkUnplayed, pkTrick, pkHand);
+		turns[node] = 0;
+		points[node] = 0;
+		pending[node] = 0;
+		available[node] = 0;
+		amafTurns[node] = 0;
+		amafPoints[node] = 0;
+		team[node] = (byte) t.ordinal();
+		card[node] = (byte) pkCard;
+		firstChild[node] = NONE;
+		nextSibling[node] = NONE;
+		if (table != null) {
+			// The voids observed by an information set search break the color symmetry
+			key[node] = TranspositionTable.key(pkScore, pkUnplayed, pkTrick, pkHand, t, !informationSets);
+			entry[node] = table.entry(key[node]);
+		}
+	}
+
+	/**
+	 * Create a packed cardset with all the cards the next player may play
+	 * 
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @return (long) : packed cardset of the possible children
+	 */
+	private long potentialCards(long pkUnplayed, int pkTrick, long pkHand) {
+		if (pkTrick == PackedTrick.INVALID)
+			return PackedCardSet.EMPTY;
+		if (PackedTrick.player(pkTrick, PackedTrick.size(pkTrick)) == mcts)
+			return PackedTrick.playableCards(pkTrick, pkHand);
+		if (informationSets)
+			return PackedCardSet.difference(pkUnplayed, pkHand);
+		return PackedTrick.playableCards(pkTrick, PackedCardSet.difference(pkUnplayed, pkHand));
+	}
+}
\ No newline at end of file
@@ -13,19 +13,36 @@ import javass3.jass.ids.TeamId;
 
 public class PacedPlayer implements Player {
 	
+	public static final double NO_MAX_TIME = Double.POSITIVE_INFINITY;
+
 	private final Player underlyingPlayer;
 	private final long minTimeInMilli;
+	private final long maxTimeInNano;
 
 	/**
-	 * Public constructor
+	 * Public constructor, the underlying player thinking as long as it wants
 	 * 
 	 * @param underlyingPlayer (Player)
 	 * @param minTime          (double)
 	 */
 	public PacedPlayer(Player underlyingPlayer, double minTime) {
+		this(underlyingPlayer, minTime, NO_MAX_TIME);
+	}
+
+	/**
+	 * Public constructor
+	 * 
+	 * @param underlyingPlayer (Player)
+	 * @param minTime          (double)
+	 * @param maxTime          (double) : maximal think time of the underlying
+	 *                         player in seconds, NO_MAX_TIME if there is none
+	 */
+	public PacedPlayer(Player underlyingPlayer, double minTime, double maxTime) {
 		assert minTime > 0;
+		assert maxTime > 0;
 		this.underlyingPlayer = underlyingPlayer;
 		this.minTimeInMilli = (long) (minTime * 1000);
+		this.maxTimeInNano = maxTime == NO_MAX_TIME ? SearchBudget.NO_DEADLINE : (long) (maxTime * 1e9);
 	}
 
 	/* (non-Javadoc)
@@ -82,7 +99,7 @@ public class PacedPlayer implements Player {
 	@Override
 	public Card cardToPlay(TurnState state, CardSet hand) {
 		long startTime = System.currentTimeMillis();
-		Card card = underlyingPlayer.cardToPlay(state, hand);
+		Card card = underlyingPlayer.cardToPlay(state, hand, deadline());
 		pace(startTime);
 		return card;
 	}
@@ -93,11 +110,22 @@ public class PacedPlayer implements Player {
 	@Override
 	public Color trumpToChoose(CardSet hand, boolean canPass) {
 		long startTime = System.currentTimeMillis();
-		Color trump = underlyingPlayer.trumpToChoose(hand, canPass);
+		Color trump = underlyingPlayer.trumpToChoose(hand, canPass, deadline());
 		pace(startTime);
 		return trump;
 	}
 	
+	/**
+	 * Get the deadline of the action of the underlying player
+	 * 
+	 * @return (long) : value of System.nanoTime() at which the maximal think time
+	 *         is over, SearchBudget.NO_DEADLINE if there is none
+	 */
+	private long deadline() {
+		return maxTimeInNano == SearchBudget.NO_DEADLINE ? SearchBudget.NO_DEADLINE
+				: System.nanoTime() + maxTimeInNano;
+	}
+
 	/**
 	 * Pace the action by freezing the thread
 	 * @param startTime (long) : when the pace has started
@@ -21,6 +21,21 @@ public interface Player {
 	 * @return (Card) : desired card
 	 */
 	abstract Card cardToPlay(TurnState state, CardSet hand);
+
+	/**
+	 * Get the card the player wants to play given the turn state and his hand,
+	 * knowing it has to be chosen before the given deadline. Players whose
+	 * thinking time does not matter can ignore it
+	 * 
+	 * @param state    (TurnState) : current turn state
+	 * @param hand     (CardSet) : hand of the player
+	 * @param deadline (long) : value of System.nanoTime() before which the card
+	 *                 should be chosen
+	 * @return (Card) : desired card
+	 */
+	default Card cardToPlay(TurnState state, CardSet hand, long deadline) {
+		return cardToPlay(state, hand);
+	}
 	
 	/**
 	 * Get the trump the player want to choose
@@ -32,6 +47,21 @@ public interface Player {
 	// abstract vraiment ? 
 	abstract Color trumpToChoose(CardSet hand, boolean canPass);
 
+	/**
+	 * Get the trump the player wants to choose, knowing it has to be chosen before
+	 * the given deadline. Players whose thinking time does not matter can ignore
+	 * it
+	 * 
+	 * @param hand     (CardSet) : the hand of the player
+	 * @param canPass  (boolean) : if the player can pass or not
+	 * @param deadline (long) : value of System.nanoTime() before which the trump
+	 *                 should be chosen
+	 * @return (Color) : desired trump, null if the player passes
+	 */
+	default Color trumpToChoose(CardSet hand, boolean canPass, long deadline) {
+		return trumpToChoose(hand, canPass);
+	}
+
 	/**
 	 * Called once at the beginning of the game to inform the player that he has
 	 * ownId identity and that the different players (including him) are named
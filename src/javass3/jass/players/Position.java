@@ -0,0 +1,101 @@
+package javass3.jass.players;
+
+import static javass3.Preconditions.checkArgument;
+
+import javass3.jass.components.CardSet;
+import javass3.jass.components.TurnState;
+import javass3.jass.ids.PlayerId;
+
+/**
+ * Decision to evaluate by a PositionEvaluator : the state of the turn, the
+ * player who must play and his hand, with the budget of the search
+ */
+public final class Position {
+
+	private final PlayerId player;
+	private final TurnState state;
+	private final CardSet hand;
+	private final int iterations;
+	private final long maxNanos;
+
+	/**
+	 * Public constructor of a position whose search is only bounded by its
+	 * iterations
+	 * 
+	 * @param player     (PlayerId) : player who must play
+	 * @param state      (TurnState) : state of the turn, not terminal
+	 * @param hand       (CardSet) : hand of the player
+	 * @param iterations (int) : iterations of the search
+	 * @throws IllegalArgumentException
+	 */
+	public Position(PlayerId player, TurnState state, CardSet hand, int iterations) {
+		this(player, state, hand, iterations, 0L);
+	}
+
+	/**
+	 * Public constructor
+	 * 
+	 * @param player     (PlayerId) : player who must play
+	 * @param state      (TurnState) : state of the turn, not terminal
+	 * @param hand       (CardSet) : hand of the player
+	 * @param iterations (int) : iterations of the search
+	 * @param maxNanos   (long) : time the search may take once started, 0 if it
+	 *                   is not bounded
+	 * @throws IllegalArgumentException
+	 */
+	public Position(PlayerId player, TurnState state, CardSet hand, int iterations, long maxNanos) {
+		checkArgument(player != null && state != null && hand != null);
+		checkArgument(!state.isTerminal() && state.nextPlayer() == player && !hand.isEmpty());
+		checkArgument(iterations >= 1 && maxNanos >= 0);
+		this.player = player;
+		this.state = state;
+		this.hand = hand;
+		this.iterations = iterations;
+		this.maxNanos = maxNanos;
+	}
+
+	/**
+	 * Get the player who must play
+	 * 
+	 * @return (PlayerId) : player
+	 */
+	public PlayerId player() {
+		return player;
+	}
+
+	/**
+	 * Get the state of the turn
+	 * 
+	 * @return (TurnState) : state
+	 */
+	public TurnState state() {
+		return state;
+	}
+
+	/**
+	 * Get the hand of the player
+	 * 
+	 * @return (CardSet) : hand
+	 */
+	public CardSet hand() {
+		return hand;
+	}
+
+	/**
+	 * Get the iterations of the search
+	 * 
+	 * @return (int) : iterations
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the time the search may take once started
+	 * 
+	 * @return (long) : nanoseconds, 0 if the search is not bounded in time
+	 */
+	public long maxNanos() {
+		return maxNanos;
+	}
+}
\ No newline at end of file
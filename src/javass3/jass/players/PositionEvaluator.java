@@ -0,0 +1,151 @@
+package javass3.jass.players;
+
+import static javass3.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javass3.jass.Jass;
+import javass3.jass.ids.PlayerId;
+
+/**
+ * Batch evaluation of positions, for the offline analysis of games : the
+ * searches are spread over a work-stealing pool, each worker reusing the trees
+ * of its own MctsPlayers. The positions are only read as the evaluations are
+ * consumed, at most window searches being scheduled ahead of the consumer, so
+ * that a slow consumer slows the searches down instead of piling up results
+ */
+public final class PositionEvaluator implements AutoCloseable {
+
+	private final ForkJoinPool pool;
+	private final int window;
+	private final long seed;
+	private final Function<PlayerId, MctsPlayer> factory;
+	// Players of each worker, indexed by ordinal, created when first needed
+	private final ThreadLocal<MctsPlayer[]> players = ThreadLocal.withInitial(() -> new MctsPlayer[PlayerId.COUNT]);
+
+	/**
+	 * Public constructor
+	 * 
+	 * @param threads (int) : number of workers
+	 * @param window  (int) : maximum number of positions searched or waiting to
+	 *                be consumed, at least threads to keep all the workers busy
+	 * @param seed    (long) : seed of the searches, a position being evaluated
+	 *                in the same way whatever the worker searching it
+	 * @throws IllegalArgumentException
+	 */
+	public PositionEvaluator(int threads, int window, long seed) {
+		// The iterations of the players are replaced by the ones of the positions
+		this(threads, window, seed, p -> new MctsPlayer(p, seed, Jass.HAND_SIZE));
+	}
+
+	/**
+	 * Public constructor of an evaluator whose searches are done by players
+	 * configured by the given factory, for instance with information sets, a
+	 * rollout policy, an endgame solver or a node cap. The factory is called
+	 * once per worker and player. The iterations of the players are ignored, each
+	 * search having the budget of its position, and a transposition table shared
+	 * by the players makes the evaluations depend on the scheduling
+	 * 
+	 * @param threads (int) : number of workers
+	 * @param window  (int) : maximum number of positions searched or waiting to
+	 *                be consumed, at least threads to keep all the workers busy
+	 * @param seed    (long) : seed of the searches, a position being evaluated
+	 *                in the same way whatever the worker searching it
+	 * @param factory (Function<PlayerId, MctsPlayer>) : creates a new player
+	 *                for the given id
+	 * @throws IllegalArgumentException
+	 */
+	public PositionEvaluator(int threads, int window, long seed, Function<PlayerId, MctsPlayer> factory) {
+		checkArgument(threads >= 1 && window >= threads);
+		checkArgument(factory != null);
+		this.pool = new ForkJoinPool(threads);
+		this.window = window;
+		this.seed = seed;
+		this.factory = factory;
+	}
+
+	/**
+	 * Evaluate the given positions, in the order they are given. The returned
+	 * stream is lazy : the searches start when it is consumed
+	 * 
+	 * @param positions (Stream<Position>)
+	 * @return (Stream<Evaluation>) : evaluation of each position, in the same
+	 *         order
+	 */
+	public Stream<Evaluation> evaluate(Stream<Position> positions) {
+		Iterator<Evaluation> evaluations = evaluate(positions.iterator());
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(evaluations,
+				Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(positions::close);
+	}
+
+	/**
+	 * Evaluate the given positions, in the order they are given. A position is
+	 * only read when there is room for its search in the window
+	 * 
+	 * @param positions (Iterator<Position>)
+	 * @return (Iterator<Evaluation>) : evaluation of each position, in the same
+	 *         order
+	 */
+	public Iterator<Evaluation> evaluate(Iterator<Position> positions) {
+		SplittableRandom rng = new SplittableRandom(seed);
+		ArrayDeque<ForkJoinTask<Evaluation>> pending = new ArrayDeque<>(window);
+		return new Iterator<Evaluation>() {
+
+			@Override
+			public boolean hasNext() {
+				fill();
+				return !pending.isEmpty();
+			}
+
+			@Override
+			public Evaluation next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				Evaluation evaluation = pending.poll().join();
+				fill();
+				return evaluation;
+			}
+
+			private void fill() {
+				while (pending.size() < window && positions.hasNext()) {
+					Position position = positions.next();
+					SplittableRandom positionRng = rng.split();
+					pending.add(pool.submit(() -> search(position, positionRng)));
+				}
+			}
+		};
+	}
+
+	/**
+	 * Stop the workers once the scheduled searches are done
+	 */
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Search a position with the player of the calling worker
+	 * 
+	 * @param position (Position)
+	 * @param rng      (SplittableRandom) : random generator of the position
+	 * @return (Evaluation) : evaluation of the position
+	 */
+	private Evaluation search(Position position, SplittableRandom rng) {
+		MctsPlayer[] own = players.get();
+		int p = position.player().ordinal();
+		if (own[p] == null)
+			own[p] = factory.apply(position.player());
+		return own[p].evaluate(position, rng);
+	}
+}
\ No newline at end of file
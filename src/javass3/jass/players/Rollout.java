@@ -0,0 +1,98 @@
+package javass3.jass.players;
+
+import java.util.SplittableRandom;
+
+import javass3.jass.ids.PlayerId;
+import javass3.jass.packed.PackedCardSet;
+import javass3.jass.packed.PackedLongTrick;
+import javass3.jass.packed.PackedScore;
+import javass3.jass.packed.PackedTrick;
+
+/**
+ * Simulation of the end of a turn, the cards being chosen by a rollout policy,
+ * working only on the packed components of the turn state so that a rollout
+ * does not allocate anything. The trick is followed with its summary
+ * (PackedLongTrick), so that its size, winner and points are never recomputed
+ */
+final class Rollout {
+
+	private Rollout() {
+	}
+
+	/**
+	 * Play the cards chosen by the policy from the given packed state until the
+	 * end of the turn. The mcts player plays from his hand, the other players
+	 * from the unplayed cards he does not hold
+	 * 
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @param mcts       (PlayerId)
+	 * @param rng        (SplittableRandom)
+	 * @param policy     (RolloutPolicy)
+	 * @param played     (long[]) : cards played by each player, indexed by
+	 *                   ordinal, to which the simulated cards are added, null
+	 *                   if they are not needed
+	 * @return (long) : final packed score of the simulated turn
+	 */
+	static long endOfTurnScore(long pkScore, long pkUnplayed, int pkTrick, long pkHand, PlayerId mcts,
+			SplittableRandom rng, RolloutPolicy policy, long[] played) {
+		long pkLongTrick = PackedLongTrick.of(pkTrick);
+		while (pkLongTrick != PackedLongTrick.INVALID) {
+			int trick = PackedLongTrick.packedTrick(pkLongTrick);
+			PlayerId player = PackedLongTrick.nextPlayer(pkLongTrick);
+			long playable = player == mcts ? PackedTrick.playableCards(trick, pkHand)
+					: PackedTrick.playableCards(trick, PackedCardSet.difference(pkUnplayed, pkHand));
+			int pkCard = policy.cardToPlay(trick, playable, rng);
+			if (played != null)
+				played[player.ordinal()] = PackedCardSet.add(played[player.ordinal()], pkCard);
+
+			pkUnplayed = PackedCardSet.remove(pkUnplayed, pkCard);
+			pkHand = PackedCardSet.remove(pkHand, pkCard);
+			pkLongTrick = PackedLongTrick.withAddedCard(pkLongTrick, pkCard);
+			if (PackedLongTrick.isFull(pkLongTrick)) {
+				pkScore = PackedScore.withAdditionalTrick(pkScore, PackedLongTrick.winningPlayer(pkLongTrick).team(),
+						PackedLongTrick.points(pkLongTrick));
+				pkLongTrick = PackedLongTrick.nextEmpty(pkLongTrick);
+			}
+		}
+		return pkScore;
+	}
+
+	/**
+	 * Play the cards chosen by the policy from the given packed state until the
+	 * end of the turn, each player playing from his own hand, as given by a determinization. The
+	 * played cards are removed from the hands
+	 * 
+	 * @param pkScore (long)
+	 * @param pkTrick (int)
+	 * @param hands   (long[]) : packed hand of each player, indexed by ordinal
+	 * @param rng     (SplittableRandom)
+	 * @param policy  (RolloutPolicy)
+	 * @param played  (long[]) : cards played by each player, to which the
+	 *                simulated cards are added, null if they are not needed
+	 * @return (long) : final packed score of the simulated turn
+	 */
+	static long endOfTurnScore(long pkScore, int pkTrick, long[] hands, SplittableRandom rng, RolloutPolicy policy,
+			long[] played) {
+		long pkLongTrick = PackedLongTrick.of(pkTrick);
+		while (pkLongTrick != PackedLongTrick.INVALID) {
+			int trick = PackedLongTrick.packedTrick(pkLongTrick);
+			int player = PackedLongTrick.nextPlayer(pkLongTrick).ordinal();
+			long playable = PackedTrick.playableCards(trick, hands[player]);
+			int pkCard = policy.cardToPlay(trick, playable, rng);
+
+			hands[player] = PackedCardSet.remove(hands[player], pkCard);
+			if (played != null)
+				played[player] = PackedCardSet.add(played[player], pkCard);
+			pkLongTrick = PackedLongTrick.withAddedCard(pkLongTrick, pkCard);
+			if (PackedLongTrick.isFull(pkLongTrick)) {
+				pkScore = PackedScore.withAdditionalTrick(pkScore, PackedLongTrick.winningPlayer(pkLongTrick).team(),
+						PackedLongTrick.points(pkLongTrick));
+				pkLongTrick = PackedLongTrick.nextEmpty(pkLongTrick);
+			}
+		}
+		return pkScore;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package javass3.jass.players;
+
+import java.util.SplittableRandom;
+
+import javass3.jass.packed.PackedCardSet;
+
+/**
+ * Choice of the cards played by the rollouts of a MctsPlayer, working on the
+ * packed components of the turn state. It is called by all the threads of the
+ * searches, so it must be stateless or thread-safe, and should not allocate
+ * anything
+ */
+@FunctionalInterface
+public interface RolloutPolicy {
+
+	/** plays one of the playable cards uniformly at random */
+	RolloutPolicy UNIFORM = (pkTrick, playable, rng) -> PackedCardSet.get(playable,
+			rng.nextInt(PackedCardSet.size(playable)));
+
+	/**
+	 * wins the trick when the partner is not winning it, with the cheapest card
+	 * when playing last, ducks low otherwise, and only trumps a trick worth it
+	 */
+	RolloutPolicy HEURISTIC = new HeuristicRolloutPolicy();
+
+	/**
+	 * Choose the card to play next in a rollout
+	 * 
+	 * @param pkTrick  (int) : current trick, not full
+	 * @param playable (long) : packed cardset of the cards that may be played,
+	 *                 not empty
+	 * @param rng      (SplittableRandom) : random generator of the rollout
+	 * @return (int) : packed card, one of the playable cards
+	 */
+	int cardToPlay(int pkTrick, long playable, SplittableRandom rng);
+}
\ No newline at end of file
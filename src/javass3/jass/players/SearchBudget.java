@@ -0,0 +1,111 @@
+package javass3.jass.players;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Budget of a search : a maximal number of iterations and an optional
+ * deadline, whichever comes first. It may be shared by several threads
+ * working on the same search
+ */
+final class SearchBudget {
+
+	static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	// Number of iterations between two checks of the clock, a power of two
+	private static final int CHECK_PERIOD = 64;
+
+	private final int iterations;
+	private final long deadline;
+	private final long start;
+	private final AtomicInteger started;
+	private volatile boolean stopped;
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param iterations (int) : maximal number of iterations
+	 * @param deadline   (long) : value of System.nanoTime() at which the search
+	 *                   must stop, NO_DEADLINE if there is none
+	 */
+	SearchBudget(int iterations, long deadline) {
+		this.iterations = iterations;
+		this.deadline = deadline;
+		this.start = System.nanoTime();
+		this.started = new AtomicInteger();
+		this.stopped = false;
+	}
+
+	/**
+	 * Claim the next iteration of the search
+	 * 
+	 * @return (boolean) : true iff the budget allows one more iteration
+	 */
+	boolean tryStart() {
+		if (stopped)
+			return false;
+		int i = started.getAndIncrement();
+		if (i >= iterations)
+			return false;
+		if (isCheckpoint(i) && deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0) {
+			stopped = true;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Check if the current iteration is a good time to check if the search is
+	 * decided, which is too expensive to be done at each iteration
+	 * 
+	 * @return (boolean) : true iff the last claimed iteration is a checkpoint
+	 */
+	boolean isCheckpoint() {
+		return isCheckpoint(started.get() - 1);
+	}
+
+	/**
+	 * Stop the search before the end of its budget
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Check if the search has been stopped before the end of its budget
+	 * 
+	 * @return (boolean) : true iff the search has been stopped
+	 */
+	boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * Get the number of iterations claimed so far
+	 * 
+	 * @return (int) : number of started iterations
+	 */
+	int done() {
+		return Math.min(started.get(), iterations);
+	}
+
+	/**
+	 * Get the number of iterations still allowed by the iteration cap. A deadline
+	 * can only end the search sooner, so that this is an upper bound of the
+	 * iterations still to come
+	 * 
+	 * @return (long) : remaining iterations
+	 */
+	long remaining() {
+		return iterations - done();
+	}
+
+	/**
+	 * Check if the given iteration is a checkpoint
+	 * 
+	 * @param iteration (int)
+	 * @return (boolean) : true iff it is a checkpoint
+	 */
+	private static boolean isCheckpoint(int iteration) {
+		return (iteration & (CHECK_PERIOD - 1)) == CHECK_PERIOD - 1;
+	}
+}
\ No newline at end of file
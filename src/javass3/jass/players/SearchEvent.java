@@ -0,0 +1,44 @@
+package javass3.jass.players;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a search of a MctsPlayer, whose duration is the one
+ * of the search. It is only filled when it is recorded
+ */
+@Name("javass3.MctsSearch")
+@Label("MCTS Search")
+@Category("Javass")
+@Description("Search done by a MctsPlayer to choose a card")
+final class SearchEvent extends Event {
+
+	@Label("Player")
+	String player;
+
+	@Label("Iterations")
+	int iterations;
+
+	@Label("Rollouts per Second")
+	double rolloutsPerSecond;
+
+	@Label("Nodes")
+	int nodes;
+
+	@Label("Max Depth")
+	int maxDepth;
+
+	@Label("Mean Depth")
+	double meanDepth;
+
+	@Label("Root Visits")
+	String rootVisits;
+
+	@Label("Allocated")
+	@DataAmount
+	long allocatedBytes;
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package javass3.jass.players;
+
+/**
+ * Receives the statistics of each search of a MctsPlayer. It is called by the
+ * thread that asked the player for a card, before the card is returned, so it
+ * should be quick
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+	/**
+	 * Called when a search is over
+	 * 
+	 * @param statistics (SearchStatistics) : statistics of the search
+	 */
+	void searchDone(SearchStatistics statistics);
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package javass3.jass.players;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures of the part of a search done by one thread : its iterations, the
+ * depth of their new nodes and an estimate of the memory it allocated. A
+ * recorder is only used by one thread, the recorders of a search being merged
+ * once it is over
+ */
+final class SearchRecorder {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private int iterations;
+	private long depthSum;
+	private int maxDepth;
+	private long allocatedBytes;
+	private long allocationStart;
+
+	/**
+	 * Start measuring the memory allocated by the current thread
+	 */
+	void start() {
+		allocationStart = threadAllocatedBytes();
+	}
+
+	/**
+	 * Stop measuring the memory allocated by the current thread
+	 */
+	void stop() {
+		if (allocationStart >= 0)
+			allocatedBytes += threadAllocatedBytes() - allocationStart;
+		else
+			allocatedBytes = -1;
+	}
+
+	/**
+	 * Record an iteration
+	 * 
+	 * @param depth (int) : depth of the node whose simulation has been done
+	 */
+	void record(int depth) {
+		record(depth, 1);
+	}
+
+	/**
+	 * Record the simulations of the same node, each one counting as an iteration
+	 * 
+	 * @param depth       (int) : depth of the node whose simulations have been
+	 *                    done
+	 * @param simulations (int) : number of simulations backed up
+	 */
+	void record(int depth, int simulations) {
+		iterations += simulations;
+		depthSum += (long) depth * simulations;
+		maxDepth = Math.max(maxDepth, depth);
+	}
+
+	/**
+	 * Get the number of recorded iterations
+	 * 
+	 * @return (int) : iterations
+	 */
+	int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the sum of the depths of the recorded iterations
+	 * 
+	 * @return (long) : sum of the depths
+	 */
+	long depthSum() {
+		return depthSum;
+	}
+
+	/**
+	 * Get the maximal depth of the recorded iterations
+	 * 
+	 * @return (int) : maximal depth
+	 */
+	int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Get the memory allocated between the calls to start and stop
+	 * 
+	 * @return (long) : allocated bytes, -1 if the JVM cannot measure it
+	 */
+	long allocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Get the memory allocated so far by the current thread
+	 * 
+	 * @return (long) : allocated bytes, -1 if the JVM cannot measure it
+	 */
+	@SuppressWarnings("deprecation")
+	private static long threadAllocatedBytes() {
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+			if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+				return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+}
\ No newline at end of file
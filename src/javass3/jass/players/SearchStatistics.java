@@ -0,0 +1,147 @@
+package javass3.jass.players;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import javass3.jass.components.Card;
+import javass3.jass.ids.PlayerId;
+
+/**
+ * Shape and cost of the search done by a MctsPlayer to choose one card
+ */
+public final class SearchStatistics {
+
+	private final PlayerId player;
+	private final int iterations;
+	private final long nanos;
+	private final int nodes;
+	private final int maxDepth;
+	private final double meanDepth;
+	private final Map<Card, Integer> rootVisits;
+	private final long allocatedBytes;
+
+	/**
+	 * Package-private constructor
+	 * 
+	 * @param player         (PlayerId) : player who did the search
+	 * @param iterations     (int) : iterations done, ie simulations
+	 * @param nanos          (long) : wall time of the search
+	 * @param nodes          (int) : nodes of the tree(s) after the search
+	 * @param maxDepth       (int) : maximal depth of the simulated nodes
+	 * @param meanDepth      (double) : mean depth of the simulated nodes
+	 * @param rootVisits     (Map<Card, Integer>) : visits of each card of the
+	 *                       root
+	 * @param allocatedBytes (long) : estimate of the memory allocated by the
+	 *                       search, -1 if unknown
+	 */
+	SearchStatistics(PlayerId player, int iterations, long nanos, int nodes, int maxDepth, double meanDepth,
+			Map<Card, Integer> rootVisits, long allocatedBytes) {
+		this.player = player;
+		this.iterations = iterations;
+		this.nanos = nanos;
+		this.nodes = nodes;
+		this.maxDepth = maxDepth;
+		this.meanDepth = meanDepth;
+		this.rootVisits = Collections.unmodifiableMap(new LinkedHashMap<>(rootVisits));
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Get the player who did the search
+	 * 
+	 * @return (PlayerId) : player
+	 */
+	public PlayerId player() {
+		return player;
+	}
+
+	/**
+	 * Get the number of iterations of the search, each one doing one simulation
+	 * 
+	 * @return (int) : iterations
+	 */
+	public int iterations() {
+		return iterations;
+	}
+
+	/**
+	 * Get the wall time of the search
+	 * 
+	 * @return (long) : duration in nanoseconds
+	 */
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * Get the number of simulations per second of wall time
+	 * 
+	 * @return (double) : rollouts per second
+	 */
+	public double rolloutsPerSecond() {
+		return nanos == 0 ? 0d : iterations * 1e9 / nanos;
+	}
+
+	/**
+	 * Get the number of nodes of the tree(s) at the end of the search, including
+	 * the ones kept from the previous searches
+	 * 
+	 * @return (int) : nodes
+	 */
+	public int nodes() {
+		return nodes;
+	}
+
+	/**
+	 * Get the maximal depth, below the root, of the nodes simulated
+	 * 
+	 * @return (int) : maximal depth
+	 */
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Get the mean depth, below the root, of the nodes simulated
+	 * 
+	 * @return (double) : mean depth
+	 */
+	public double meanDepth() {
+		return meanDepth;
+	}
+
+	/**
+	 * Get the visits of each card that may be played from the root, over all the
+	 * trees of the search
+	 * 
+	 * @return (Map<Card, Integer>) : unmodifiable map of the visits
+	 */
+	public Map<Card, Integer> rootVisits() {
+		return rootVisits;
+	}
+
+	/**
+	 * Get an estimate of the memory allocated by the threads of the search
+	 * 
+	 * @return (long) : allocated bytes, -1 if the JVM cannot measure it
+	 */
+	public long allocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringJoiner visits = new StringJoiner(", ", "{", "}");
+		for (Map.Entry<Card, Integer> e : rootVisits.entrySet())
+			visits.add(e.getKey() + "=" + e.getValue());
+		return String.format("%s : %d iterations in %.1f ms (%.0f/s), %d nodes, depth %d max %.2f mean, "
+				+ "%d bytes, root %s", player, iterations, nanos / 1e6, rolloutsPerSecond(), nodes, maxDepth,
+				meanDepth, allocatedBytes, visits);
+	}
+}
\ No newline at end of file
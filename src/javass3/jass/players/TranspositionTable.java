@@ -0,0 +1,287 @@
+package javass3.jass.players;
+
+import static javass3.Preconditions.checkArgument;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javass3.jass.ids.TeamId;
+import javass3.jass.packed.PackedColorPermutation;
+
+/**
+ * Bounded and lock-free table of search statistics, shared by all the nodes of
+ * MctsPlayer trees that have the same packed state, whatever the order in which
+ * the cards have been played to reach it. It may be shared by several threads
+ * and several players
+ */
+public final class TranspositionTable {
+
+	private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	static final int NONE = -1;
+
+	// A key, the visits and the points of an entry
+	private static final int ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;
+	private static final int BUCKET_SIZE = 2;
+	private static final long EMPTY = 0L;
+
+	// Zobrist keys, for each byte of each packed component and for the team
+	private static final long SEED = 0x9E37_79B9_7F4A_7C15L;
+	private static final int TEAM_TABLE = 3 * Long.BYTES + Integer.BYTES;
+	private static final long[][] KEYS = zobristKeys();
+
+	private final long[] keys;
+	private final int[] turns;
+	private final int[] points;
+	private final int mask;
+	private final Replacement replacement;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+
+	/**
+	 * Represent what happens when a new state falls in a bucket that is full
+	 */
+	public enum Replacement {
+		/** the entry of the bucket with the fewest visits is replaced */
+		ALWAYS,
+		/** the new state is not added, the states met first stay in the table */
+		EMPTY_ONLY
+	}
+
+	/**
+	 * Public constructor
+	 * 
+	 * @param maxBytes    (long) : memory the table may use
+	 * @param replacement (Replacement) : replacement policy of the entries
+	 * @throws IllegalArgumentException
+	 */
+	public TranspositionTable(long maxBytes, Replacement replacement) {
+		checkArgument(maxBytes >= ENTRY_BYTES * BUCKET_SIZE && maxBytes / ENTRY_BYTES <= 1 << 30);
+		checkArgument(replacement != null);
+		int capacity = Integer.highestOneBit((int) (maxBytes / ENTRY_BYTES));
+		this.keys = new long[capacity];
+		this.turns = new int[capacity];
+		this.points = new int[capacity];
+		this.mask = capacity - 1;
+		this.replacement = replacement;
+	}
+
+	/**
+	 * Compute the Zobrist key of a packed state, by tabulation on the bytes of its
+	 * canonical components, so that the states which only differ by a permutation
+	 * of the interchangeable colors share their statistics. It is never 0
+	 * 
+	 * @param pkScore    (long)
+	 * @param pkUnplayed (long)
+	 * @param pkTrick    (int)
+	 * @param pkHand     (long) : hand of the mcts player
+	 * @param team       (TeamId) : team of the player who played the last card
+	 * @return (long) : key of the state
+	 */
+	static long key(long pkScore, long pkUnplayed, int pkTrick, long pkHand, TeamId team) {
+		return key(pkScore, pkUnplayed, pkTrick, pkHand, team, true);
+	}
+
+	/**
+	 * Compute the Zobrist key of a packed state, on its canonical components or on
+	 * the components themselves. The colors are not interchangeable anymore once
+	 * the voids of the other players are known, so that an information set search
+	 * must not canonicalize its states
+	 * 
+	 * @param pkScore     (long)
+	 * @param pkUnplayed  (long)
+	 * @param pkTrick     (int)
+	 * @param pkHand      (long) : hand of the mcts player
+	 * @param team        (TeamId) : team of the player who played the last card
+	 * @param isCanonical (boolean) : true iff the states which only differ by a
+	 *                    permutation of the interchangeable colors share their
+	 *                    key
+	 * @return (long) : key of the state
+	 */
+	static long key(long pkScore, long pkUnplayed, int pkTrick, long pkHand, TeamId team, boolean isCanonical) {
+		if (isCanonical) {
+			int permutation = PackedColorPermutation.canonical(pkTrick, pkUnplayed, pkHand);
+			pkUnplayed = PackedColorPermutation.applyToCardSet(permutation, pkUnplayed);
+			pkHand = PackedColorPermutation.applyToCardSet(permutation, pkHand);
+			pkTrick = PackedColorPermutation.applyToTrick(permutation, pkTrick);
+		}
+
+		long key = KEYS[TEAM_TABLE][team.ordinal()];
+		for (int b = 0; b < Long.BYTES; ++b) {
+			int shift = b * Byte.SIZE;
+			key ^= KEYS[b][(int) (pkScore >>> shift) & 0xFF];
+			key ^= KEYS[Long.BYTES + b][(int) (pkUnplayed >>> shift) & 0xFF];
+			key ^= KEYS[2 * Long.BYTES + b][(int) (pkHand >>> shift) & 0xFF];
+		}
+		for (int b = 0; b < Integer.BYTES; ++b)
+			key ^= KEYS[3 * Long.BYTES + b][(pkTrick >>> b * Byte.SIZE) & 0xFF];
+		return key == EMPTY ? 1L : key;
+	}
+
+	/**
+	 * Get the entry of the given key, creating it if the replacement policy allows
+	 * 
+	 * @param key (long)
+	 * @return (int) : the entry, NONE if it is not in the table
+	 */
+	int entry(long key) {
+		int first = (int) key & mask & -BUCKET_SIZE;
+		int victim = NONE;
+		long old = EMPTY;
+		// The entries of a bucket are filled in order, and never emptied
+		for (int i = first; i < first + BUCKET_SIZE; ++i) {
+			long k = (long) LONGS.getVolatile(keys, i);
+			if (k == key) {
+				hits.increment();
+				return i;
+			}
+			if (k == EMPTY) {
+				victim = i;
+				old = EMPTY;
+				break;
+			}
+			if (victim == NONE || turns[i] < turns[victim]) {
+				victim = i;
+				old = k;
+			}
+		}
+
+		if ((old != EMPTY && replacement == Replacement.EMPTY_ONLY)
+				|| !LONGS.compareAndSet(keys, victim, old, key)) {
+			rejections.increment();
+			return NONE;
+		}
+		INTS.setVolatile(turns, victim, 0);
+		INTS.setVolatile(points, victim, 0);
+		misses.increment();
+		return victim;
+	}
+
+	/**
+	 * Check if the given entry still holds the given key, an entry being possibly
+	 * replaced at any time
+	 * 
+	 * @param entry (int)
+	 * @param key   (long)
+	 * @return (boolean) : true iff the entry holds the key
+	 */
+	boolean holds(int entry, long key) {
+		return entry != NONE && (long) LONGS.getVolatile(keys, entry) == key;
+	}
+
+	/**
+	 * Add visits and points to the given entry
+	 * 
+	 * @param entry  (int)
+	 * @param turns  (int)
+	 * @param points (int)
+	 */
+	void add(int entry, int turns, int points) {
+		INTS.getAndAdd(this.turns, entry, turns);
+		INTS.getAndAdd(this.points, entry, points);
+	}
+
+	/**
+	 * Get the visits of an entry
+	 * 
+	 * @param entry (int)
+	 * @return (int) : turns
+	 */
+	int turns(int entry) {
+		return turns[entry];
+	}
+
+	/**
+	 * Get the points of an entry
+	 * 
+	 * @param entry (int)
+	 * @return (int) : points
+	 */
+	int points(int entry) {
+		return points[entry];
+	}
+
+	/**
+	 * Get the number of lookups of a state already in the table
+	 * 
+	 * @return (long) : hits
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * Get the number of lookups of a state which has been added to the table
+	 * 
+	 * @return (long) : misses
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Get the number of lookups of a state which could not be added to the table,
+	 * because of the replacement policy or a concurrent insertion
+	 * 
+	 * @return (long) : rejections
+	 */
+	public long rejections() {
+		return rejections.sum();
+	}
+
+	/**
+	 * Get the share of the lookups which found their state in the table
+	 * 
+	 * @return (double) : hit rate, between 0 and 1
+	 */
+	public double hitRate() {
+		long hits = hits();
+		long total = hits + misses() + rejections();
+		return total == 0 ? 0d : (double) hits / total;
+	}
+
+	/**
+	 * Get the number of entries of the table
+	 * 
+	 * @return (int) : capacity
+	 */
+	public int capacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Remove all the entries and reset the counters. It must not be called during
+	 * a search
+	 */
+	public void clear() {
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = EMPTY;
+			turns[i] = 0;
+			points[i] = 0;
+		}
+		hits.reset();
+		misses.reset();
+		rejections.reset();
+	}
+
+	/**
+	 * Create the random Zobrist keys, one table of 256 keys per byte of the packed
+	 * score, unplayed cards, hand and trick, and one for the team
+	 * 
+	 * @return (long[][]) : Zobrist keys
+	 */
+	private static long[][] zobristKeys() {
+		SplittableRandom rng = new SplittableRandom(SEED);
+		long[][] keys = new long[TEAM_TABLE + 1][1 << Byte.SIZE];
+		for (long[] table : keys) {
+			for (int i = 0; i < table.length; ++i)
+				table[i] = rng.nextLong();
+		}
+		return keys;
+	}
+}
\ No newline at end of file